@@ -0,0 +1,84 @@
+/**
+ * BallStorage.java
+ * Version 1.0
+ * @author Yash Arora
+ * October 30th, 2018
+ * The following code is the interface for the memory that holds the variables of every ball
+ */
+
+// This is the interface for storing ball variables by index, so that the store can keep them on or off the heap
+public interface BallStorage {
+
+	/**
+	 * capacity
+	 * Method that returns the number of balls that fit in the storage
+	 * @return the integer number of balls that fit
+	 */
+	int capacity();
+
+	/**
+	 * grow
+	 * Method that makes room for more balls, keeping the variables of the balls that are already stored
+	 * @param the integer new number of balls that must fit
+	 */
+	void grow(int newCapacity);
+
+	/**
+	 * setSize
+	 * Method that is told the number of balls in use whenever it changes
+	 * @param the integer number of balls in use
+	 */
+	void setSize(int size);
+
+	/**
+	 * beginWrite
+	 * Method that is called before the balls are changed, and can be called again before the matching endWrite
+	 */
+	void beginWrite();
+
+	/**
+	 * endWrite
+	 * Method that is called after the balls have been changed, once for every beginWrite
+	 */
+	void endWrite();
+
+	/**
+	 * copy
+	 * Method that copies every variable of a ball into another index
+	 * @param the integer index to copy from and the integer index to copy to
+	 */
+	void copy(int from, int to);
+
+	// These methods read and write the variables of the ball at an index
+	int getId(int index);
+
+	void setId(int index, int id);
+
+	double getX(int index);
+
+	void setX(int index, double d);
+
+	double getY(int index);
+
+	void setY(int index, double d);
+
+	double getxChange(int index);
+
+	void setxChange(int index, double d);
+
+	double getyChange(int index);
+
+	void setyChange(int index, double d);
+
+	int getDiameter(int index);
+
+	void setDiameter(int index, int diameter);
+
+	double getMass(int index);
+
+	void setMass(int index, double d);
+
+	int getColor(int index);
+
+	void setColor(int index, int color);
+}
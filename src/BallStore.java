@@ -0,0 +1,470 @@
+/**
+ * BallStore.java
+ * Version 1.0
+ * @author Yash Arora
+ * October 30th, 2018
+ * The following code is the storage for every bouncing ball in the simulation
+ */
+
+// Required imports
+import java.awt.Color;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.SplittableRandom;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+// This is the class that keeps track of all the balls in a storage so that balls can be added and removed in bulk
+public class BallStore {
+
+	// Number of balls that are filled by one random number generator when spawning in parallel
+	static final int SPAWN_CHUNK_SIZE = 4096;
+
+	// Number of shades in the gradient that balls are randomly colored with
+	static final int GRADIENT_SHADES = 256;
+
+	// Each ball stores its color as an RGB integer, and the gradient is worked out once so that spawning never has to make colors
+	static final int[] GRADIENT = new int[GRADIENT_SHADES];
+
+	// Balls with the same RGB share one Color, so drawing doesn't make a new Color for every ball
+	private static final HashMap<Integer, Color> colors = new HashMap<Integer, Color>();
+
+	static {
+		for (int i = 0; i < GRADIENT_SHADES; i++) {
+			double shade = (double) i / (GRADIENT_SHADES - 1);
+			GRADIENT[i] = new Color((int) Math.floor(255 * shade), (int) Math.floor(182 * shade), (int) Math.floor(193 * shade)).getRGB();
+		}
+	}
+
+	// These are the variables of every ball, which can be kept on or off the heap
+	private final BallStorage storage;
+
+	// The BouncingBall objects that read from the storage, which are only made for the balls that get asks for
+	// The simulation works with indices, so a store of many balls doesn't need an object for each of them
+	private BouncingBall[] handles;
+
+	// The number of balls that are currently stored
+	private int size = 0;
+
+	// Ids never change when balls are moved, so the index of each id is kept to find balls by id
+	private int[] indexOfId;
+	private int nextId = 0;
+
+	// Generator that decides the variables of newly spawned balls
+	private final ScenarioGenerator generator;
+
+	/**
+	 * BallStore
+	 * Constructor that creates an empty store that keeps the balls in arrays on the heap
+	 * @param the generator used to spawn balls and the integer number of balls to make room for
+	 */
+	BallStore(ScenarioGenerator generator, int initialCapacity) {
+		this(generator, new HeapBallStorage(Math.max(initialCapacity, 16)));
+	}
+
+	/**
+	 * BallStore
+	 * Constructor that creates an empty store that keeps the balls in a given storage
+	 * @param the generator used to spawn balls and the empty storage for the balls
+	 */
+	BallStore(ScenarioGenerator generator, BallStorage storage) {
+		this.generator = generator;
+		this.storage = storage;
+		this.handles = new BouncingBall[storage.capacity()];
+		this.indexOfId = new int[storage.capacity()];
+		Arrays.fill(indexOfId, -1);
+	}
+
+	/**
+	 * spawn
+	 * Method that adds many balls of the default sizes at once
+	 * @param the integer number of balls to add and the distribution to place them with
+	 */
+	public void spawn(int numBalls, ScenarioGenerator.Distribution distribution) {
+		spawn(numBalls, distribution, ScenarioGenerator.MIN_DIAMETER, ScenarioGenerator.MAX_DIAMETER);
+	}
+
+	/**
+	 * spawn
+	 * Method that adds many balls at once, filling the storage in parallel
+	 * @param the integer number of balls to add, the distribution to place them with, and the integer smallest and largest diameter of the balls
+	 */
+	public void spawn(int numBalls, final ScenarioGenerator.Distribution distribution, final int minDiameter, final int maxDiameter) {
+		if (numBalls <= 0) {
+			return;
+		}
+		beginWrite();
+		try {
+			ensureCapacity(size + numBalls);
+
+			// Every chunk gets its own random number generator, split in order so that the result does not depend on the threads
+			final int start = size;
+			final int total = numBalls;
+			final int firstId = nextId;
+			ensureIdCapacity(nextId + numBalls);
+			int chunks = (numBalls + SPAWN_CHUNK_SIZE - 1) / SPAWN_CHUNK_SIZE;
+			final SplittableRandom[] chunkRandoms = new SplittableRandom[chunks];
+			for (int i = 0; i < chunks; i++) {
+				chunkRandoms[i] = generator.split();
+			}
+
+			// Each chunk writes to its own part of the storage, so no locking is needed
+			IntStream.range(0, chunks).parallel().forEach(chunk -> {
+				int from = chunk * SPAWN_CHUNK_SIZE;
+				int to = Math.min(from + SPAWN_CHUNK_SIZE, total);
+				generator.fill(this, start, from, to, total, distribution, minDiameter, maxDiameter, chunkRandoms[chunk]);
+				for (int i = from; i < to; i++) {
+					storage.setId(start + i, firstId + i);
+					indexOfId[firstId + i] = start + i;
+				}
+			});
+
+			size += numBalls;
+			nextId += numBalls;
+			storage.setSize(size);
+		} finally {
+			endWrite();
+		}
+	}
+
+	/**
+	 * spawnWhere
+	 * Method that spawns balls in the same way as spawn, but only keeps the ones that match a condition
+	 * Chunks are filled one at a time, so a tile worker can make its own balls without ever holding everyone else's
+	 * @param the integer number of balls to spawn, the distribution to place them with, the integer smallest and largest diameter
+	 * of the balls, and an IntPredicate that returns true for the indices of the balls to keep
+	 */
+	public void spawnWhere(int numBalls, ScenarioGenerator.Distribution distribution, int minDiameter, int maxDiameter, IntPredicate condition) {
+		if (numBalls <= 0) {
+			return;
+		}
+		beginWrite();
+		try {
+			final int firstId = nextId;
+			ensureIdCapacity(nextId + numBalls);
+			int chunks = (numBalls + SPAWN_CHUNK_SIZE - 1) / SPAWN_CHUNK_SIZE;
+
+			// The random number generators are split in the same order as spawn, so the kept balls are exactly the same
+			for (int chunk = 0; chunk < chunks; chunk++) {
+				SplittableRandom chunkRandom = generator.split();
+				int from = chunk * SPAWN_CHUNK_SIZE;
+				int to = Math.min(from + SPAWN_CHUNK_SIZE, numBalls);
+				ensureCapacity(size + to - from);
+				int start = size - from;
+				generator.fill(this, start, from, to, numBalls, distribution, minDiameter, maxDiameter, chunkRandom);
+
+				// The kept balls are moved down over the ones that were dropped
+				for (int i = from; i < to; i++) {
+					storage.setId(start + i, firstId + i);
+					if (condition.test(start + i)) {
+						indexOfId[firstId + i] = start + i;
+						if (start + i != size) {
+							moveBall(start + i, size);
+						}
+						size++;
+					} else {
+						dropHandle(start + i);
+					}
+				}
+			}
+
+			nextId += numBalls;
+			storage.setSize(size);
+		} finally {
+			endWrite();
+		}
+	}
+
+	/**
+	 * add
+	 * Method that adds a single ball that already has an id, used when balls are moved between tile workers
+	 * @param the integer id, the double x and y position, the integer diameter, the double mass, the double x and y velocities and the integer RGB color
+	 * @return the integer index of the new ball
+	 */
+	public int add(int ballId, double newX, double newY, int newDiameter, double newMass, double newXChange, double newYChange, int newColor) {
+		beginWrite();
+		try {
+			ensureCapacity(size + 1);
+			ensureIdCapacity(ballId + 1);
+			setBall(size, newX, newY, newDiameter, newMass, newXChange, newYChange, newColor);
+			storage.setId(size, ballId);
+			indexOfId[ballId] = size;
+			nextId = Math.max(nextId, ballId + 1);
+			size++;
+			storage.setSize(size);
+		} finally {
+			endWrite();
+		}
+		return size - 1;
+	}
+
+	/**
+	 * truncate
+	 * Method that removes every ball after a given number of balls, used to drop balls that were only added for one step
+	 * @param the integer number of balls to keep
+	 */
+	public void truncate(int newSize) {
+		beginWrite();
+		try {
+			while (size > newSize) {
+				size--;
+				dropHandle(size);
+				indexOfId[storage.getId(size)] = -1;
+			}
+			storage.setSize(size);
+		} finally {
+			endWrite();
+		}
+	}
+
+	/**
+	 * removeWhere
+	 * Method that removes every ball that matches a condition, moving the last ball into each empty spot
+	 * @param an IntPredicate that returns true for the indices of the balls to remove
+	 * @return the integer number of balls that were removed
+	 */
+	public int removeWhere(IntPredicate condition) {
+		int removed = 0;
+		beginWrite();
+		try {
+			int i = 0;
+			while (i < size) {
+				if (condition.test(i)) {
+					dropHandle(i);
+					indexOfId[storage.getId(i)] = -1;
+					moveBall(size - 1, i);
+					size--;
+					removed++;
+
+					// The ball that was moved into this spot has not been checked yet
+				} else {
+					i++;
+				}
+			}
+			storage.setSize(size);
+		} finally {
+			endWrite();
+		}
+		return removed;
+	}
+
+	/**
+	 * beginWrite
+	 * Method that is called before the balls are changed, so that a process reading a shared storage knows to wait
+	 * Calls can be nested, and only the outermost pair is seen by the reader
+	 */
+	public void beginWrite() {
+		storage.beginWrite();
+	}
+
+	/**
+	 * endWrite
+	 * Method that is called after the balls have been changed, once for every beginWrite
+	 */
+	public void endWrite() {
+		storage.endWrite();
+	}
+
+	/**
+	 * get
+	 * Method that returns the ball at a given index, making its handle the first time it is asked for
+	 * @param the integer index of the ball
+	 * @return the bouncing ball at the index
+	 */
+	public BouncingBall get(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		if (handles[index] == null) {
+			handles[index] = new BouncingBall(this, index);
+		}
+		return handles[index];
+	}
+
+	/**
+	 * getById
+	 * Method that returns the ball with a given id
+	 * @param the integer id of the ball
+	 * @return the bouncing ball with the id, or null if it was removed
+	 */
+	public BouncingBall getById(int ballId) {
+		if (ballId < 0 || ballId >= indexOfId.length) {
+			return null;
+		}
+		int index = indexOfId[ballId];
+		if (index < 0) {
+			return null;
+		}
+		return get(index);
+	}
+
+	/**
+	 * indexOf
+	 * Method that returns the index of the ball with a given id, used to work with the balls without their handles
+	 * @param the integer id of the ball
+	 * @return the integer index of the ball, or -1 if it was removed
+	 */
+	int indexOf(int ballId) {
+		if (ballId < 0 || ballId >= indexOfId.length) {
+			return -1;
+		}
+		return indexOfId[ballId];
+	}
+
+	/**
+	 * size
+	 * Method that returns the number of balls that are stored
+	 * @return the integer number of balls
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * setBall
+	 * Method that sets every variable of the ball at an index, used by the generator while spawning
+	 * @param the integer index, the double x and y position, the integer diameter, the double mass, the double x and y velocities and the integer RGB color
+	 */
+	void setBall(int index, double newX, double newY, int newDiameter, double newMass, double newXChange, double newYChange, int newColor) {
+		storage.setX(index, newX);
+		storage.setY(index, newY);
+		storage.setDiameter(index, newDiameter);
+		storage.setMass(index, newMass);
+		storage.setxChange(index, newXChange);
+		storage.setyChange(index, newYChange);
+		storage.setColor(index, newColor);
+	}
+
+	// These methods read and write the variables of the ball at an index, used by BouncingBall and by the simulation's loops over every ball
+	int getId(int index) {
+		return storage.getId(index);
+	}
+
+	double getX(int index) {
+		return storage.getX(index);
+	}
+
+	void setX(int index, double d) {
+		storage.setX(index, d);
+	}
+
+	double getY(int index) {
+		return storage.getY(index);
+	}
+
+	void setY(int index, double d) {
+		storage.setY(index, d);
+	}
+
+	double getxChange(int index) {
+		return storage.getxChange(index);
+	}
+
+	void setxChange(int index, double d) {
+		storage.setxChange(index, d);
+	}
+
+	double getyChange(int index) {
+		return storage.getyChange(index);
+	}
+
+	void setyChange(int index, double d) {
+		storage.setyChange(index, d);
+	}
+
+	int getDiameter(int index) {
+		return storage.getDiameter(index);
+	}
+
+	double getMass(int index) {
+		return storage.getMass(index);
+	}
+
+	void setMass(int index, double d) {
+		storage.setMass(index, d);
+	}
+
+	Color getColor(int index) {
+		return colorOf(storage.getColor(index));
+	}
+
+	int getRGB(int index) {
+		return storage.getColor(index);
+	}
+
+	void setColor(int index, Color c) {
+		storage.setColor(index, c.getRGB());
+	}
+
+	/**
+	 * colorOf
+	 * Method that returns the shared Color of an RGB integer, making it the first time the RGB is used
+	 * @param the integer RGB of the color
+	 * @return the Color with that RGB
+	 */
+	static Color colorOf(int rgb) {
+		Color c = colors.get(rgb);
+		if (c == null) {
+			c = new Color(rgb, true);
+			colors.put(rgb, c);
+		}
+		return c;
+	}
+
+	/**
+	 * moveBall
+	 * Method that copies a ball into another index, used to fill the spot of a removed ball
+	 * @param the integer index to copy from and the integer index to copy to
+	 */
+	private void moveBall(int from, int to) {
+		if (from != to) {
+			storage.copy(from, to);
+			indexOfId[storage.getId(to)] = to;
+			handles[to] = handles[from];
+			if (handles[to] != null) {
+				handles[to].setIndex(to);
+			}
+		}
+		handles[from] = null;
+	}
+
+	/**
+	 * dropHandle
+	 * Method that marks the handle of a removed ball as removed, if it was ever made
+	 * @param the integer index of the ball that is being removed
+	 */
+	private void dropHandle(int index) {
+		if (handles[index] != null) {
+			handles[index].setIndex(-1);
+			handles[index] = null;
+		}
+	}
+
+	/**
+	 * ensureIdCapacity
+	 * Method that makes room to look up the index of a given number of ids
+	 * @param the integer number of ids that must fit
+	 */
+	private void ensureIdCapacity(int capacity) {
+		if (capacity <= indexOfId.length) {
+			return;
+		}
+		int oldLength = indexOfId.length;
+		indexOfId = Arrays.copyOf(indexOfId, Math.max(capacity, oldLength * 2));
+		Arrays.fill(indexOfId, oldLength, indexOfId.length, -1);
+	}
+
+	/**
+	 * ensureCapacity
+	 * Method that makes the storage big enough to hold a given number of balls
+	 * @param the integer number of balls that must fit
+	 */
+	private void ensureCapacity(int capacity) {
+		if (capacity <= storage.capacity()) {
+			return;
+		}
+		int newCapacity = Math.max(capacity, storage.capacity() * 2);
+		storage.grow(newCapacity);
+		handles = Arrays.copyOf(handles, newCapacity);
+	}
+}
@@ -10,21 +10,26 @@
 import javax.swing.JFrame;
 import javax.swing.JPanel;
 import java.awt.Graphics;
-import java.awt.Rectangle;
 import java.awt.Color;
 
-// Keyboard imports
+// Keyboard and window imports
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
 
-// Utilities
-import java.util.ArrayList;
+// File imports
+import java.io.File;
+import java.io.IOException;
 
 // This is the class that holds all of the information for the actual simulation part of the code
 class BounceTester extends JFrame {
 
 	// These are static variables that dictate how the code should be run
 	static int STARTING_NUM_BALLS = 100000;
+	static int STARTING_NUM_LARGE_BALLS = 5;
+	static int LARGE_BALL_DIAMETER = 30;
+	static int MAX_LARGE_BALL_DIAMETER = 120;
 	static int CAPACITY_BEFORE_SPLITTING = 4;
 	static int BALLS_TO_ADD_ON_KEYPRESS = 10;
 	static int SCREEN_RESOLUTION_CONSTANT = 23;
@@ -32,6 +37,10 @@ class BounceTester extends JFrame {
 	static int MAX_DIVISIONS = 10;
 	static double VELOCITY_MAXIMUM = 1;
 	static boolean VISUALIZATION_MODE = true;
+	static long RANDOM_SEED = 20181030;
+	static ScenarioGenerator.Distribution STARTING_DISTRIBUTION = ScenarioGenerator.Distribution.UNIFORM;
+	static boolean OFF_HEAP_STORAGE = false;
+	static String SHARED_STATE_FILE = null;
 	
 	// These variables are used in the calculation of the frames per second
 	double currentTime;
@@ -42,15 +51,18 @@ class BounceTester extends JFrame {
 	// These are used as the initial screen dimensions, but change if the user resizes the screen
 	int currentDimensionX = 800;
 	int currentDimensionY = 800;
-
-	// ArrayList that stores all of the balls that exist
-	ArrayList<BouncingBall> balls = new ArrayList<BouncingBall>();
 	
-	// QuadTree that will be used to make collision detection more efficient
-	QuadTree qTree;
+	// Set when the screen has been resized, so the new size is only applied once
+	boolean resized = false;
+
+	// Generator that creates the same balls on every run for the same seed
+	ScenarioGenerator generator = new ScenarioGenerator(RANDOM_SEED, currentDimensionX, currentDimensionY);
+
+	// Store that holds all of the balls that exist
+	BallStore balls = new BallStore(generator, createStorage(STARTING_NUM_BALLS + STARTING_NUM_LARGE_BALLS));
 	
-	// Total boundary of the initial QuadTree
-	Rectangle boundary = new Rectangle(currentDimensionX / 2, currentDimensionY / 2, currentDimensionX / 2, currentDimensionY / 2);
+	// Simulation that moves and collides the balls in the store
+	Simulation simulation = new Simulation(balls, currentDimensionX, currentDimensionY);
 	
 	// Required variables for displaying to screen through a window in java
 	static JFrame window;
@@ -61,6 +73,28 @@ class BounceTester extends JFrame {
 		window = new BounceTester();
 	}
 
+	/**
+	 * createStorage
+	 * Method that creates the storage for the balls, off the heap or in a shared file if either is turned on
+	 * @param the integer number of balls to make room for
+	 * @return the storage for the balls
+	 */
+	static BallStorage createStorage(int capacity) {
+		
+		// A shared file lets another process read the balls while the simulation runs
+		if (SHARED_STATE_FILE != null) {
+			try {
+				return OffHeapBallStorage.map(new File(SHARED_STATE_FILE), capacity);
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+		if (OFF_HEAP_STORAGE) {
+			return OffHeapBallStorage.allocate(capacity);
+		}
+		return new HeapBallStorage(capacity);
+	}
+
 	/**
 	 * BounceTester
 	 * Constructor that sets the required attributes to the window
@@ -73,15 +107,18 @@ class BounceTester extends JFrame {
 		this.setLocation(0, 0);
 		this.setSize(currentDimensionX + 1, currentDimensionY + SCREEN_RESOLUTION_CONSTANT);
 		gamePanel = new GameAreaPanel();
-		this.add(new GameAreaPanel());
+		gamePanel.addComponentListener(new MyResizeListener());
+		this.add(gamePanel);
 		MyKeyListener keyListener = new MyKeyListener();
 		this.addKeyListener(keyListener);
 		this.requestFocusInWindow();
 		this.setResizable(true);
 		this.setVisible(true);
 		
-		// Create the QuadTree with the given boundary, capacity before splitting, and initial level of 1
-		qTree = new QuadTree(boundary, CAPACITY_BEFORE_SPLITTING, 1);
+		// Colliding balls are shown in green in visualization mode
+		if (VISUALIZATION_MODE) {
+			simulation.getCollisionEvents().addListener(new VisualizationListener());
+		}
 	}
 	
 	// Inner class that allows things to be drawn to the screen in java
@@ -104,21 +141,27 @@ class BounceTester extends JFrame {
 			// Generating the balls in this method allows tens of thousands of balls to be generated without error
 			count++;
 			if (count == 1) {
-				for (int i = 0; i < STARTING_NUM_BALLS; i++) {
-					balls.add(new BouncingBall(currentDimensionX, currentDimensionY));
-				}
+				balls.spawn(STARTING_NUM_BALLS, STARTING_DISTRIBUTION);
+				balls.spawn(STARTING_NUM_LARGE_BALLS, ScenarioGenerator.Distribution.UNIFORM, LARGE_BALL_DIAMETER + 1, MAX_LARGE_BALL_DIAMETER);
+			}
+			
+			// Apply the new screen size before the QuadTree is built so that every node matches the screen
+			if (resized) {
+				enableResizing();
 			}
 			
-			// Clears the existing QuadTree
-			qTree.clear();
+			// Add all the balls into a new QuadTree
+			simulation.buildTree();
 
-			// Add all the balls into the QuadTree
-			for (int i = 0; i < balls.size(); i++) {
-				qTree.insert(balls.get(i));
-				
-				// Balls are white in visualization mode
-				if(VISUALIZATION_MODE) {
-					balls.get(i).setColor(Color.WHITE);
+			// Balls are white in visualization mode
+			if(VISUALIZATION_MODE) {
+				balls.beginWrite();
+				try {
+					for (int i = 0; i < balls.size(); i++) {
+						balls.setColor(i, Color.WHITE);
+					}
+				} finally {
+					balls.endWrite();
 				}
 			}
 			
@@ -131,15 +174,12 @@ class BounceTester extends JFrame {
 				}
 			}
 
-			// Allow the user to resize the screen and dynamically change the QuadTree
-			enableResizing();
-
 			// This is required to draw to the screen
 			super.paintComponent(g);
 			setDoubleBuffered(true);
 			
-			// Checks through each smallest existing QuadTree node for collisions
-			iterateThroughBallsInTree(qTree);
+			// Collides the balls and sends the collisions of this frame to the listeners
+			simulation.detectCollisions();
 			
 			// Call method to draw the background
 			drawBackground(g);
@@ -148,13 +188,13 @@ class BounceTester extends JFrame {
 			drawBalls(g);
 
 			// Call method to draw the boundaries of the QuadTree
-			drawBounds(g, qTree);
+			drawBounds(g, simulation.getTree());
 			
 			// Show FPS
 			g.drawString("FPS: " + (int) fps, 20, 20);
 			
 			// Update the positions of the balls
-			updatePositions();
+			simulation.updatePositions();
 			
 			// Display again to the screen
 			repaint();
@@ -170,135 +210,6 @@ class BounceTester extends JFrame {
 			g.fillRect(0, 0, currentDimensionX, currentDimensionY);
 		}
 		
-		/**
-		 * iterateThroughBallsInTree
-		 * Method that recursively iterates through the tree or all its nodes and calls method to check collisions
-		 * @param a QuadTree that holds a certain number of balls or nodes that lead to more balls
-		 */
-		public void iterateThroughBallsInTree(QuadTree qTree) {
-			
-			// If the QuadTree or node has not divided, check for collisions in that segment
-			if (!qTree.isDivided()) {
-				checkCollisions(qTree.getBallsInTree());
-				
-				// Otherwise, repeat this with all the subsegments
-			} else {
-				iterateThroughBallsInTree(qTree.northeast);
-				iterateThroughBallsInTree(qTree.northwest);
-				iterateThroughBallsInTree(qTree.southeast);
-				iterateThroughBallsInTree(qTree.southwest);
-			}
-		}
-		
-		/**
-		 * checkCollisions
-		 * Checks collisions ONLY with balls within the same smallest rectangle
-		 * @param an ArrayList of all the balls in a certain smallest subsegment
-		 */
-		public void checkCollisions(ArrayList<BouncingBall> ballsThatCanCollide) {
-						
-			// Efficiently checks the collisions given only the balls in the segment
-			for (int i = 0; i < ballsThatCanCollide.size(); i++) {
-				for (int j = i; j < ballsThatCanCollide.size(); j++) {
-					
-					// Balls can collide if seeIfCollided returns true, and if they are not the same ball
-					if (ballsThatCanCollide.get(i) != ballsThatCanCollide.get(j) && 
-							seeIfCollided(ballsThatCanCollide.get(i), ballsThatCanCollide.get(j))) {
-						
-						// Call method to commit action on ball collision
-						collideBalls(ballsThatCanCollide.get(i), ballsThatCanCollide.get(j));
-					}
-				}
-			}
-		}
-		
-		/**
-		 * collideBalls
-		 * Method to perform an action upon ball collision, given two balls
-		 * @param the first ball in the collision (a) and the second ball in the collision (b)
-		 */
-		private void collideBalls(BouncingBall a, BouncingBall b) {
-			
-			// Use TLAP to calculate required variables
-			double xDiff = b.getX() - a.getX();
-			double yDiff = b.getY() - a.getY();
-			double length = Math.sqrt(Math.pow(xDiff, 2) + Math.pow(yDiff, 2));
-			if (length == 0) {
-				length = 1;
-			}
-			double cosTheta = xDiff/length;
-			double sinTheta = yDiff/length;
-			double radiusSum = ((double)a.getDiameter())/2 + ((double)b.getDiameter())/2;
-			
-			// Reset the position of one of the balls so that they are no longer colliding
-			b.setX((int)(a.getX() + ((radiusSum + 1) * cosTheta)));
-			b.setY((int)(a.getY() + ((radiusSum + 1) * sinTheta)));
-
-			// Swap the balls' angles and recalculate velocities using TLAP
-			
-			// Find old x and y velocities
-			double oldVay = a.getyChange();
-			double oldVax = a.getxChange();
-			double oldVby = b.getyChange();
-			double oldVbx = b.getxChange();
-
-			// Calculate the magnitudes of the new x and y velocities
-			double newVay = Math.sqrt(Math.pow(oldVay, 2) + Math.pow(oldVax, 2)) * Math.sin(Math.atan((oldVby) / (oldVbx)));
-			double newVax = Math.sqrt(Math.pow(oldVay, 2) + Math.pow(oldVax, 2)) * Math.cos(Math.atan((oldVby) / (oldVbx)));
-			double newVby = Math.sqrt(Math.pow(oldVby, 2) + Math.pow(oldVbx, 2)) * Math.sin(Math.atan((oldVay) / (oldVax)));
-			double newVbx = Math.sqrt(Math.pow(oldVby, 2) + Math.pow(oldVbx, 2)) * Math.cos(Math.atan((oldVay) / (oldVax)));
-
-			// Check to ensure that the balls are going in the correct direction
-			if (((oldVay > 0) && (newVby < 0)) || ((oldVay < 0) && (newVby > 0))) {
-				newVby = newVby * (-1);
-			}
-			if (((oldVax > 0) && (newVbx < 0)) || ((oldVax < 0) && (newVbx > 0))) {
-				newVbx = newVbx * (-1);
-			}
-			if (((oldVby > 0) && (newVay < 0)) || ((oldVby < 0) && (newVay > 0))) {
-				newVay = newVay * (-1);
-			}
-			if (((oldVbx > 0) && (newVax < 0)) || ((oldVbx < 0) && (newVax > 0))) {
-				newVax = newVax * (-1);
-			}
-			
-			// Set the balls' x and y velocities
-			a.setyChange(newVay);
-			a.setxChange(newVax);
-			b.setyChange(newVby);
-			b.setxChange(newVbx);
-		}
-
-		/**
-		 * seeIfCollided
-		 * Method that checks if two balls are colliding
-		 * @param the first ball in the collision (a) and the second ball in the collision (b)
-		 * @return boolean true if the balls have collided, false if not 
-		 */
-		public boolean seeIfCollided(BouncingBall a, BouncingBall b) {
-			
-			// Use TLAP to calculate necessary variables
-			double xDiff = b.getX() - a.getX();
-			double yDiff = b.getY() - a.getY();
-			double length = Math.sqrt(Math.pow(xDiff, 2) + Math.pow(yDiff, 2));
-			
-			// If the distance between them is less than or equal to the sum of their radii, then a collision has occurred
-			if (length <= ((double)a.getDiameter())/2 + ((double) b.getDiameter())/2) {	
-				
-				if (VISUALIZATION_MODE) {
-					a.setColor(Color.GREEN);
-					b.setColor(Color.GREEN);
-				}
-				
-				return true;
-			
-				// Otherwise there is no collision
-			} else {
-				return false;
-			}
-			
-		}	
-		
 		/**
 		 * drawBounds
 		 * Method that draws the rectangles for the QuadTree bounds
@@ -333,72 +244,74 @@ class BounceTester extends JFrame {
 		public void drawBalls(Graphics g) {
 			g.setColor(Color.WHITE);
 			
-			/// Iterate through all balls
+			/// Iterate through all balls, by index so that no handles are needed
 			for (int i = 0; i < balls.size(); i++) {
 				
 				// If color mode has been turned on, the color must be set to the ball's color
 				if (COLOR_MODE || VISUALIZATION_MODE) {
-					g.setColor(balls.get(i).getColor());
+					g.setColor(balls.getColor(i));
 				}
 				
 				// Draw a circle with the ball's specification
-				g.fillOval((int) balls.get(i).getX(), (int) balls.get(i).getY(), balls.get(i).getDiameter(), balls.get(i).getDiameter());
+				g.fillOval((int) balls.getX(i), (int) balls.getY(i), balls.getDiameter(i), balls.getDiameter(i));
 			}
 		}
 
 		/**
-		 * updatePositions
-		 * Method for updating the positions of the balls
+		 * enableResizing
+		 * Method that changes the screen dimensions and the QuadTree's boundary after the user resizes the screen
 		 */
-		public void updatePositions() {
-
-			// Iterate through all balls
-			for (int i = 0; i < balls.size(); i++) {
-				
-				// Ball must bounce off top and bottom of screen
-				if (balls.get(i).getX() <= balls.get(i).getDiameter()/2) {
-					balls.get(i).setxChange(-1 * balls.get(i).getxChange());
-					balls.get(i).setX(balls.get(i).getDiameter()/2);
-				}
-				if (balls.get(i).getX() + balls.get(i).getDiameter()/2 >= currentDimensionX) {
-					balls.get(i).setxChange(-1 * balls.get(i).getxChange());
-					balls.get(i).setX(currentDimensionX - balls.get(i).getDiameter()/2);
-				}
-				
-				// Ball must bounce off left and right of screen
-				if (balls.get(i).getY() <= balls.get(i).getDiameter()/2) {
-					balls.get(i).setyChange(-1 * balls.get(i).getyChange());
-					balls.get(i).setY(balls.get(i).getDiameter()/2);
-				}
-				if (balls.get(i).getY() + balls.get(i).getDiameter()/2 >= currentDimensionY) {
-					balls.get(i).setyChange(-1 * balls.get(i).getyChange());
-					balls.get(i).setY(currentDimensionY - balls.get(i).getDiameter()/2);
-				}
-				
-				// The x and y coordinates of the ball must change dependent on their x and y velocities
-				balls.get(i).setX(balls.get(i).getX() + balls.get(i).getxChange());
-				balls.get(i).setY(balls.get(i).getY() + balls.get(i).getyChange());
+		public void enableResizing() {
+			resized = false;
+			
+			// Nothing has to change if the size is the same
+			int newDimensionX = getWidth();
+			int newDimensionY = getHeight();
+			if (newDimensionX == currentDimensionX && newDimensionY == currentDimensionY) {
+				return;
 			}
+			
+			// Changes the dimensions
+			currentDimensionX = newDimensionX;
+			currentDimensionY = newDimensionY;
+			generator.setArea(currentDimensionX, currentDimensionY);
+			simulation.resize(currentDimensionX, currentDimensionY);
 		}
+	} // End of GameAreaPanel
+
+	// This is the inner class for the listener that detects when the screen is resized
+	private class MyResizeListener extends ComponentAdapter {
 		
-		// I have no clue what this does but Eclipse said it was a good idea
-		@SuppressWarnings("deprecation")
+		/**
+		 * componentResized
+		 * Method that marks the screen as resized, the new size is applied before the next frame
+		 * @param a ComponentEvent object of the screen being resized
+		 */
+		public void componentResized(ComponentEvent e) {
+			resized = true;
+		}
+	} // End of MyResizeListener
+
+	// This is the inner class for the listener that colors the colliding balls in visualization mode
+	private class VisualizationListener implements CollisionListener {
 		
 		/**
-		 * enableResizing
-		 * Method that allows the user to resize the screen
+		 * onCollisions
+		 * Method that colors both balls of every collision green
+		 * @param the CollisionEvents that holds the batch of collisions
 		 */
-		public void enableResizing() {
-			
-			// Changes the dimensions
-			currentDimensionX = (int) window.size().getWidth() - 1;
-			currentDimensionY = (int) window.size().getHeight() - SCREEN_RESOLUTION_CONSTANT;
-			
-			// Changes the QuadTree's boundaries based on these new dimensions
-			qTree.changeBoundary(new Rectangle(currentDimensionX / 2, currentDimensionY / 2, currentDimensionX / 2,
-					currentDimensionY / 2));
+		public void onCollisions(CollisionEvents events) {
+			balls.beginWrite();
+			try {
+				for (int i = 0; i < events.size(); i++) {
+					balls.setColor(balls.indexOf(events.getBallA(i)), Color.GREEN);
+					balls.setColor(balls.indexOf(events.getBallB(i)), Color.GREEN);
+				}
+			} finally {
+				balls.endWrite();
+			}
 		}
-	} // End of GameAreaPanel
+	} // End of VisualizationListener
 
 	//This is the inner class for the keyboard listener that detects key presses and runs the corresponding code
 	private class MyKeyListener implements KeyListener {
@@ -418,9 +331,7 @@ class BounceTester extends JFrame {
 			if (e.getKeyCode() == KeyEvent.VK_SPACE) { 
 
 				// Balls are added that will also be displayed
-				for (int i = 0; i < BALLS_TO_ADD_ON_KEYPRESS; i++) {
-					balls.add(new BouncingBall(currentDimensionX, currentDimensionY));
-				}
+				balls.spawn(BALLS_TO_ADD_ON_KEYPRESS, STARTING_DISTRIBUTION);
 				
 				// If the escape key is pressed
 			} else if (e.getKeyCode() == KeyEvent.VK_ESCAPE) { 
@@ -9,66 +9,53 @@
 // Required imports
 import java.awt.Color; 
 import java.awt.Rectangle;
-import java.util.Random;
 
 // This is the class that holds all the information for a single bouncing ball
 public class BouncingBall {
 
-	// These are all required variables specific to a ball
-	private double velocity;
-	private double angle;
-	private double xChange;
-	private double yChange;
-	private int diameter;
-	private double x;
-	private double y;
-	private Color color;
+	// The variables of the ball are kept in the store, at the ball's index
+	private final BallStore store;
+	private int index;
 
 	/**
 	 * BouncingBall
-	 * Constructor that creates a bouncing ball
-	 * @param two numbers that represent the maximum spawn x and y of a ball so that it is within the screen
+	 * Constructor that creates a bouncing ball that reads its variables from a store
+	 * @param the store that holds the ball's variables and the integer index of the ball in the store
 	 */
-	BouncingBall(int maxSpawnX, int maxSpawnY) {
+	BouncingBall(BallStore store, int index) {
+		this.store = store;
+		this.index = index;
+	}
 
-		// Random is used to create a variety of ball variables
-		Random rand = new Random();
-		
-		// Diameter is between 5 and 20
-		this.diameter = rand.nextInt(10) + 5;
-		
-		// Ball is spawned based such that it doesn't go out of the screen
-		this.x = (int) (rand.nextInt((maxSpawnX - diameter) + 1)) + diameter;
-		this.y = (int) (rand.nextInt((maxSpawnY - diameter) + 1)) + diameter;
-
-		// Ball angle is randomized and velocities are determined using TLAP
-		this.angle = Math.random() * 2 * Math.PI;
-		this.velocity = rand.nextDouble() * BounceTester.VELOCITY_MAXIMUM;
-		this.xChange = (velocity * Math.cos(angle)) + 1;
-		this.yChange = (velocity * Math.sin(angle)) + 1;
-
-		// Randomly chooses the direction of x and y velocities
-		if (Math.random() > 0.5) {
-			xChange = xChange * -1;
-		}
-		if (Math.random() > 0.5) {
-			yChange = yChange * -1;
-		}
+	/**
+	 * setIndex
+	 * Method that changes where the ball's variables are in the store, used when balls are moved or removed
+	 * @param the integer new index of the ball, or -1 if it was removed
+	 */
+	void setIndex(int index) {
+		this.index = index;
+	}
 
-		// Makes sure that none of the velocities are 0
-		if ((int) xChange == 0) {
-			xChange++;
-		}
-		if ((int) yChange == 0) {
-			yChange++;
+	/**
+	 * index
+	 * Method that returns where the ball's variables are in the store, checking that the ball has not been removed
+	 * Without this check a removed ball would read whatever is at index -1, which is different for every kind of storage
+	 * @return the integer index of the ball
+	 */
+	private int index() {
+		if (index < 0) {
+			throw new IllegalStateException("Ball has been removed from its store");
 		}
-
-		// Randomly sets a color for a ball
-		double random = Math.random();
-		double red = 0 + Math.floor((255 - 0) * random);
-		double green = 0 + Math.floor((182 - 0) * random);
-		double blue = 0 + Math.floor((193 - 0) * random);
-		this.color = new Color((int) red, (int) green, (int) blue);
+		return index;
+	}
+	
+	/**
+	 * getId
+	 * Method that returns the ball's id, which never changes while the ball exists
+	 * @return the integer id of the ball
+	 */
+	public int getId() {
+		return store.getId(index());
 	}
 	
 	/**
@@ -77,7 +64,16 @@ public class BouncingBall {
 	 * @return color of the ball
 	 */
 	public Color getColor() {
-		return color;
+		return store.getColor(index());
+	}
+	
+	/**
+	 * getRGB
+	 * Method that returns the ball's color as an RGB integer, used when sending the ball to another process
+	 * @return the integer RGB of the ball's color
+	 */
+	int getRGB() {
+		return store.getRGB(index());
 	}
 	
 	/**
@@ -86,7 +82,7 @@ public class BouncingBall {
 	 * @param color that the ball will be set to
 	 */
 	public void setColor(Color c) {
-		this.color = c;
+		store.setColor(index(), c);
 	}
 
 	/**
@@ -95,7 +91,7 @@ public class BouncingBall {
 	 * @return the x velocity of the ball
 	 */
 	public double getxChange() {
-		return xChange;
+		return store.getxChange(index());
 	}
 	
 	/**
@@ -104,7 +100,7 @@ public class BouncingBall {
 	 * @param double that represents the new x velocity
 	 */
 	public void setxChange(double d) {
-		this.xChange = d;
+		store.setxChange(index(), d);
 	}
 
 	/**
@@ -113,7 +109,7 @@ public class BouncingBall {
 	 * @return the y velocity of the ball
 	 */
 	public double getyChange() {
-		return yChange;
+		return store.getyChange(index());
 	}
 
 	/**
@@ -122,7 +118,7 @@ public class BouncingBall {
 	 * @param double that represents the new y velocity
 	 */
 	public void setyChange(double d) {
-		this.yChange = d;
+		store.setyChange(index(), d);
 	}
 
 	/**
@@ -131,7 +127,7 @@ public class BouncingBall {
 	 * @return a double that is the ball's x position
 	 */
 	public double getX() {
-		return x;
+		return store.getX(index());
 	}
 
 	/**
@@ -140,7 +136,7 @@ public class BouncingBall {
 	 * @param a double that represents the desired x position
 	 */
 	public void setX(double d) {
-		this.x = d;
+		store.setX(index(), d);
 	}
 
 	/**
@@ -149,7 +145,7 @@ public class BouncingBall {
 	 * @return a double that is the ball's y position
 	 */
 	public double getY() {
-		return y;
+		return store.getY(index());
 	}
 
 	/**
@@ -158,7 +154,7 @@ public class BouncingBall {
 	 * @param a double that represents the desired y position
 	 */
 	public void setY(double d) {
-		this.y = d;
+		store.setY(index(), d);
 	}
 
 	/**
@@ -167,7 +163,25 @@ public class BouncingBall {
 	 * @return the ball's diameter
 	 */
 	public int getDiameter() {
-		return diameter;
+		return store.getDiameter(index());
+	}
+
+	/**
+	 * getMass
+	 * Method that returns the ball's mass
+	 * @return the ball's mass
+	 */
+	public double getMass() {
+		return store.getMass(index());
+	}
+
+	/**
+	 * setMass
+	 * Method that sets the ball's mass
+	 * @param a double that represents the new mass
+	 */
+	public void setMass(double d) {
+		store.setMass(index(), d);
 	}
 
 	/**
@@ -179,6 +193,9 @@ public class BouncingBall {
 	public boolean isInside(Rectangle boundary) {
 		
 		// Use TLAP to see if it is or it is not
+		double x = getX();
+		double y = getY();
+		int diameter = getDiameter();
 		if (x + diameter / 2 >= boundary.getX() - boundary.getWidth() && x + diameter / 2 <= boundary.getX() + boundary.getWidth()
 				&& y + diameter / 2 >= boundary.getY() - boundary.getHeight() && y + diameter / 2 <= boundary.getY() + boundary.getHeight()) {
 			return true;
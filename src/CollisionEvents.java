@@ -0,0 +1,138 @@
+/**
+ * CollisionEvents.java
+ * Version 1.0
+ * @author Yash Arora
+ * October 30th, 2018
+ * The following code stores the collisions of each frame and sends them to the listeners
+ */
+
+// Required imports
+import java.util.ArrayList;
+import java.util.Arrays;
+
+// This is the class that records collisions in reusable arrays, which are only sent to the listeners once collision detection is finished
+public class CollisionEvents {
+
+	// Number of collisions that fit before the arrays have to grow
+	static final int DEFAULT_CAPACITY = 4096;
+
+	// These are the variables of every collision, where the i-th collision uses the i-th value of each array
+	private int[] ballA;
+	private int[] ballB;
+	private double[] contactX;
+	private double[] contactY;
+	private double[] impulse;
+
+	// The number of collisions in the batch
+	private int size = 0;
+
+	// The listeners that receive every batch
+	private final ArrayList<CollisionListener> listeners = new ArrayList<CollisionListener>();
+
+	/**
+	 * CollisionEvents
+	 * Constructor that creates the arrays for the collisions
+	 * @param the integer number of collisions that fit in a batch
+	 */
+	CollisionEvents(int capacity) {
+		this.ballA = new int[capacity];
+		this.ballB = new int[capacity];
+		this.contactX = new double[capacity];
+		this.contactY = new double[capacity];
+		this.impulse = new double[capacity];
+	}
+
+	/**
+	 * addListener
+	 * Method that adds a listener that will receive every batch of collisions
+	 * @param the CollisionListener to add
+	 */
+	public void addListener(CollisionListener listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * removeListener
+	 * Method that stops a listener from receiving collisions
+	 * @param the CollisionListener to remove
+	 */
+	public void removeListener(CollisionListener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * record
+	 * Method that records a collision, growing the arrays if they are full so that the whole frame is sent as one batch
+	 * Only collisions where the balls bounced are recorded, so every impulse is greater than zero
+	 * @param the integer ids of both balls, the double x and y of the contact point and the double impulse between the balls
+	 */
+	public void record(int idA, int idB, double x, double y, double collisionImpulse) {
+		if (size == ballA.length) {
+			grow();
+		}
+		ballA[size] = idA;
+		ballB[size] = idB;
+		contactX[size] = x;
+		contactY[size] = y;
+		impulse[size] = collisionImpulse;
+		size++;
+	}
+
+	/**
+	 * dispatch
+	 * Method that sends the recorded collisions to every listener, and then empties the batch
+	 * This is only called by the simulation once all collisions of a step have been checked
+	 */
+	public void dispatch() {
+		if (size == 0) {
+			return;
+		}
+		for (int i = 0; i < listeners.size(); i++) {
+			listeners.get(i).onCollisions(this);
+		}
+		size = 0;
+	}
+
+	/**
+	 * size
+	 * Method that returns the number of collisions in the batch
+	 * @return the integer number of collisions
+	 */
+	public int size() {
+		return size;
+	}
+
+	// These methods return the variables of the i-th collision in the batch
+	public int getBallA(int i) {
+		return ballA[i];
+	}
+
+	public int getBallB(int i) {
+		return ballB[i];
+	}
+
+	public double getContactX(int i) {
+		return contactX[i];
+	}
+
+	public double getContactY(int i) {
+		return contactY[i];
+	}
+
+	public double getImpulse(int i) {
+		return impulse[i];
+	}
+
+	/**
+	 * grow
+	 * Method that doubles the size of the arrays, which are then kept for every frame after
+	 */
+	private void grow() {
+		int newCapacity = ballA.length * 2;
+		ballA = Arrays.copyOf(ballA, newCapacity);
+		ballB = Arrays.copyOf(ballB, newCapacity);
+		contactX = Arrays.copyOf(contactX, newCapacity);
+		contactY = Arrays.copyOf(contactY, newCapacity);
+		impulse = Arrays.copyOf(impulse, newCapacity);
+	}
+}
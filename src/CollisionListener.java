@@ -0,0 +1,18 @@
+/**
+ * CollisionListener.java
+ * Version 1.0
+ * @author Yash Arora
+ * October 30th, 2018
+ * The following code is the interface for anything that reacts to collisions between balls
+ */
+
+// This is the interface that is called with every batch of collisions once collision detection is finished
+public interface CollisionListener {
+
+	/**
+	 * onCollisions
+	 * Method that is called with a batch of collisions, which is only valid until this method returns
+	 * @param the CollisionEvents that holds the batch of collisions
+	 */
+	void onCollisions(CollisionEvents events);
+}
@@ -0,0 +1,93 @@
+/**
+ * DistributedHarness.java
+ * Version 1.0
+ * @author Yash Arora
+ * October 30th, 2018
+ * The following code checks that the tile workers give the same results as a single process
+ */
+
+// This is the class that runs the same scenario in one process and in the tile workers, and compares the balls afterwards
+public class DistributedHarness {
+
+	// These are the variables of the scenario that is compared
+	static int NUM_BALLS = 20000;
+	static int NUM_STEPS = 200;
+	static int SCREEN_WIDTH = 800;
+	static int SCREEN_HEIGHT = 800;
+
+	// Two touching balls are placed by points that are at most the larger diameter apart in each direction,
+	// so a ball within this distance of a tile's edge is all that the tile needs to see to collide its own balls
+	static int HALO_WIDTH = BounceTester.MAX_LARGE_BALL_DIAMETER + 1;
+
+	// Main method runs the comparison without and then with collisions, and exits with 1 if either fails
+	public static void main(String[] args) throws Exception {
+		if (args.length > 0) {
+			NUM_BALLS = Integer.parseInt(args[0]);
+		}
+		if (args.length > 1) {
+			NUM_STEPS = Integer.parseInt(args[1]);
+		}
+		if (args.length > 2) {
+			HALO_WIDTH = Integer.parseInt(args[2]);
+		}
+
+		boolean passed = compare(false);
+		passed = compare(true) && passed;
+		System.exit(passed ? 0 : 1);
+	}
+
+	/**
+	 * compare
+	 * Method that runs the scenario in one process and in the tile workers, and prints how much the results differ
+	 * @param whether or not balls collide
+	 * @return boolean true if the results match, false otherwise
+	 */
+	static boolean compare(boolean collisionsEnabled) throws Exception {
+
+		// Run the scenario in this process, counting the collisions so that it is clear the balls really did collide
+		BallStore expected = new BallStore(new ScenarioGenerator(BounceTester.RANDOM_SEED, SCREEN_WIDTH, SCREEN_HEIGHT), NUM_BALLS);
+		TileWorker.spawnScenario(expected, BounceTester.STARTING_DISTRIBUTION, NUM_BALLS, BounceTester.STARTING_NUM_LARGE_BALLS, index -> true);
+		Simulation simulation = new Simulation(expected, SCREEN_WIDTH, SCREEN_HEIGHT);
+		simulation.setCollisionsEnabled(collisionsEnabled);
+		simulation.setTileIndependent(true);
+		final long[] collisions = new long[1];
+		simulation.getCollisionEvents().addListener(events -> collisions[0] += events.size());
+		for (int i = 0; i < NUM_STEPS; i++) {
+			simulation.step();
+		}
+
+		// Run the same scenario in the tile workers, which spawn their own balls from the same seed
+		TileCoordinator coordinator = new TileCoordinator(BounceTester.RANDOM_SEED, BounceTester.STARTING_DISTRIBUTION, NUM_BALLS,
+				BounceTester.STARTING_NUM_LARGE_BALLS, SCREEN_WIDTH, SCREEN_HEIGHT, HALO_WIDTH, collisionsEnabled);
+		for (int i = 0; i < NUM_STEPS; i++) {
+			coordinator.step();
+		}
+		BallStore actual = new BallStore(null, expected.size());
+		coordinator.collect(actual);
+		coordinator.close();
+
+		// Every ball must still exist exactly once, with exactly the same position and velocity
+		int missing = 0;
+		int different = 0;
+		double maxDistance = 0;
+		for (int i = 0; i < expected.size(); i++) {
+			BouncingBall a = expected.get(i);
+			BouncingBall b = actual.getById(a.getId());
+			if (b == null) {
+				missing++;
+			} else {
+				if (a.getX() != b.getX() || a.getY() != b.getY() || a.getxChange() != b.getxChange() || a.getyChange() != b.getyChange()) {
+					different++;
+				}
+				maxDistance = Math.max(maxDistance, Math.sqrt(Math.pow(a.getX() - b.getX(), 2) + Math.pow(a.getY() - b.getY(), 2)));
+			}
+		}
+		int duplicated = actual.size() - (expected.size() - missing);
+		boolean passed = missing == 0 && duplicated == 0 && different == 0;
+
+		System.out.println((collisionsEnabled ? "With collisions" : "Without collisions") + ": " + (passed ? "PASSED" : "FAILED")
+				+ ", collisions " + collisions[0] + ", missing " + missing + ", duplicated " + duplicated + ", different " + different
+				+ ", largest distance " + maxDistance);
+		return passed;
+	}
+}
@@ -0,0 +1,137 @@
+/**
+ * HeapBallStorage.java
+ * Version 1.0
+ * @author Yash Arora
+ * October 30th, 2018
+ * The following code stores the variables of every ball in java arrays
+ */
+
+// Required imports
+import java.util.Arrays;
+
+// This is the class that keeps all the ball variables in arrays, where the ball at index i uses the i-th value of each array
+public class HeapBallStorage implements BallStorage {
+
+	// These are the variables of every ball
+	private int[] id;
+	private double[] x;
+	private double[] y;
+	private double[] xChange;
+	private double[] yChange;
+	private int[] diameter;
+	private double[] mass;
+	private int[] color;
+
+	/**
+	 * HeapBallStorage
+	 * Constructor that creates the arrays
+	 * @param the integer number of balls to make room for
+	 */
+	HeapBallStorage(int capacity) {
+		this.id = new int[capacity];
+		this.x = new double[capacity];
+		this.y = new double[capacity];
+		this.xChange = new double[capacity];
+		this.yChange = new double[capacity];
+		this.diameter = new int[capacity];
+		this.mass = new double[capacity];
+		this.color = new int[capacity];
+	}
+
+	public int capacity() {
+		return x.length;
+	}
+
+	public void grow(int newCapacity) {
+		id = Arrays.copyOf(id, newCapacity);
+		x = Arrays.copyOf(x, newCapacity);
+		y = Arrays.copyOf(y, newCapacity);
+		xChange = Arrays.copyOf(xChange, newCapacity);
+		yChange = Arrays.copyOf(yChange, newCapacity);
+		diameter = Arrays.copyOf(diameter, newCapacity);
+		mass = Arrays.copyOf(mass, newCapacity);
+		color = Arrays.copyOf(color, newCapacity);
+	}
+
+	// Nothing outside of this process reads the arrays, so the size and the writes are not needed
+	public void setSize(int size) {}
+
+	public void beginWrite() {}
+
+	public void endWrite() {}
+
+	public void copy(int from, int to) {
+		id[to] = id[from];
+		x[to] = x[from];
+		y[to] = y[from];
+		xChange[to] = xChange[from];
+		yChange[to] = yChange[from];
+		diameter[to] = diameter[from];
+		mass[to] = mass[from];
+		color[to] = color[from];
+	}
+
+	public int getId(int index) {
+		return id[index];
+	}
+
+	public void setId(int index, int newId) {
+		id[index] = newId;
+	}
+
+	public double getX(int index) {
+		return x[index];
+	}
+
+	public void setX(int index, double d) {
+		x[index] = d;
+	}
+
+	public double getY(int index) {
+		return y[index];
+	}
+
+	public void setY(int index, double d) {
+		y[index] = d;
+	}
+
+	public double getxChange(int index) {
+		return xChange[index];
+	}
+
+	public void setxChange(int index, double d) {
+		xChange[index] = d;
+	}
+
+	public double getyChange(int index) {
+		return yChange[index];
+	}
+
+	public void setyChange(int index, double d) {
+		yChange[index] = d;
+	}
+
+	public int getDiameter(int index) {
+		return diameter[index];
+	}
+
+	public void setDiameter(int index, int newDiameter) {
+		diameter[index] = newDiameter;
+	}
+
+	public double getMass(int index) {
+		return mass[index];
+	}
+
+	public void setMass(int index, double d) {
+		mass[index] = d;
+	}
+
+	public int getColor(int index) {
+		return color[index];
+	}
+
+	public void setColor(int index, int newColor) {
+		color[index] = newColor;
+	}
+}
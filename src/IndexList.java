@@ -0,0 +1,96 @@
+/**
+ * IndexList.java
+ * Version 1.0
+ * @author Yash Arora
+ * October 30th, 2018
+ * The following code is a list of ball indices that is kept in an int array
+ */
+
+// Import Arrays for growing the array
+import java.util.Arrays;
+
+// This is the class that holds the indices of balls in a store, so that the QuadTree and the tile workers don't need a handle for every ball
+public class IndexList {
+
+	// The indices in the list, where only the first size of them are in use
+	private int[] indices;
+	private int size = 0;
+
+	/**
+	 * IndexList
+	 * Constructor that creates an empty list
+	 * @param the integer number of indices that fit before the array has to grow
+	 */
+	IndexList(int capacity) {
+		this.indices = new int[Math.max(capacity, 1)];
+	}
+
+	/**
+	 * add
+	 * Method that adds an index to the end of the list, growing the array if it is full
+	 * @param the integer index to add
+	 */
+	public void add(int index) {
+		if (size == indices.length) {
+			indices = Arrays.copyOf(indices, indices.length * 2);
+		}
+		indices[size] = index;
+		size++;
+	}
+
+	/**
+	 * addAll
+	 * Method that adds every index of another list to the end of this one
+	 * @param the IndexList to add the indices of
+	 */
+	public void addAll(IndexList other) {
+		for (int i = 0; i < other.size; i++) {
+			add(other.indices[i]);
+		}
+	}
+
+	/**
+	 * get
+	 * Method that returns the index at a position in the list
+	 * @param the integer position in the list
+	 * @return the integer index at that position
+	 */
+	public int get(int i) {
+		return indices[i];
+	}
+
+	/**
+	 * set
+	 * Method that replaces the index at a position in the list
+	 * @param the integer position in the list and the integer index to put there
+	 */
+	public void set(int i, int index) {
+		indices[i] = index;
+	}
+
+	/**
+	 * size
+	 * Method that returns the number of indices in the list
+	 * @return the integer number of indices
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * isEmpty
+	 * Method that returns if the list has no indices
+	 * @return boolean true if the list is empty, false otherwise
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * clear
+	 * Method that empties the list, keeping the array so that it can be reused
+	 */
+	public void clear() {
+		size = 0;
+	}
+}
@@ -0,0 +1,364 @@
+/**
+ * OffHeapBallStorage.java
+ * Version 1.0
+ * @author Yash Arora
+ * October 30th, 2018
+ * The following code stores the variables of every ball outside of the java heap, optionally in a memory mapped file
+ */
+
+// Input and output imports
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+// This is the class that keeps each ball variable in its own block of memory, so that millions of balls don't fill up the heap
+public class OffHeapBallStorage implements BallStorage, Closeable {
+
+	// Every block of memory starts on a multiple of this many bytes
+	static final int ALIGNMENT = 64;
+
+	// The first bytes describe the layout, so that another process reading the file can find the balls
+	// Colors are stored as ARGB integers from Color.getRGB, so a reader can draw the balls without anything from this process
+	// The sequence is odd while the balls or the layout are being changed, so a reader like SharedBallReader copies the balls after reading an even
+	// sequence, and copies them again if the sequence is different afterwards
+	static final int HEADER_SIZE = 64;
+	static final int MAGIC = 0x42414C4C;
+
+	// Positions of the header variables, which are all integers
+	static final int MAGIC_POSITION = 0;
+	static final int CAPACITY_POSITION = 4;
+	static final int SIZE_POSITION = 8;
+	static final int LITTLE_ENDIAN_POSITION = 12;
+	static final int OFFSETS_POSITION = 16;
+	static final int SEQUENCE_POSITION = 48;
+
+	// The memory, and the file it is mapped from if there is one
+	private ByteBuffer buffer;
+	private final RandomAccessFile file;
+	private final FileChannel channel;
+	private int capacity;
+
+	// The sequence that is written into the header, and how many calls to beginWrite have not been ended yet
+	private long sequence = 0;
+	private int writeDepth = 0;
+
+	// Java 8 has no fences for buffers, so fullFence writes and then reads this to keep the header and ball accesses in order
+	private static volatile int fence;
+
+	// Where the block of each variable starts in the memory
+	private int idOffset;
+	private int xOffset;
+	private int yOffset;
+	private int xChangeOffset;
+	private int yChangeOffset;
+	private int diameterOffset;
+	private int massOffset;
+	private int colorOffset;
+
+	/**
+	 * allocate
+	 * Method that creates storage in memory that is not part of the heap
+	 * @param the integer number of balls to make room for
+	 * @return the new storage
+	 */
+	static OffHeapBallStorage allocate(int capacity) {
+		return new OffHeapBallStorage(null, capacity);
+	}
+
+	/**
+	 * map
+	 * Method that creates storage in a memory mapped file, which another process can map to read the balls without copying
+	 * @param the File to map and the integer number of balls to make room for
+	 * @return the new storage
+	 */
+	static OffHeapBallStorage map(File file, int capacity) throws IOException {
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+		try {
+			return new OffHeapBallStorage(randomAccessFile, capacity);
+		} catch (RuntimeException e) {
+			randomAccessFile.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * OffHeapBallStorage
+	 * Constructor that creates the memory and writes the header
+	 * @param the RandomAccessFile to map, or null to use memory that is not in a file, and the integer number of balls to make room for
+	 */
+	private OffHeapBallStorage(RandomAccessFile file, int capacity) {
+		this.file = file;
+		this.channel = file == null ? null : file.getChannel();
+		this.capacity = capacity;
+		this.buffer = createBuffer(layout(capacity));
+		writeHeader();
+	}
+
+	/**
+	 * close
+	 * Method that closes the mapped file, after which the storage must not be used
+	 */
+	public void close() throws IOException {
+		if (file != null) {
+			file.close();
+		}
+	}
+
+	public int capacity() {
+		return capacity;
+	}
+
+	public void grow(int newCapacity) {
+
+		// The layout changes even if the balls don't, so a reader must always see a different sequence afterwards
+		beginWrite();
+		try {
+			setSequence(sequence + 2);
+
+			// A mapped file grows in place, so the old blocks have to be copied out before they are moved
+			ByteBuffer oldBuffer = buffer;
+			if (channel != null) {
+				oldBuffer = ByteBuffer.allocateDirect(buffer.capacity());
+				oldBuffer.put(buffer.duplicate());
+			}
+			int[] oldOffsets = { idOffset, xOffset, yOffset, xChangeOffset, yChangeOffset, diameterOffset, massOffset, colorOffset };
+			int oldCapacity = capacity;
+
+			// Every block gets bigger, so each one moves to a new offset
+			capacity = newCapacity;
+			buffer = createBuffer(layout(newCapacity));
+			int[] newOffsets = { idOffset, xOffset, yOffset, xChangeOffset, yChangeOffset, diameterOffset, massOffset, colorOffset };
+			int[] bytesPerBall = { 4, 8, 8, 8, 8, 4, 8, 4 };
+			for (int i = 0; i < oldOffsets.length; i++) {
+				ByteBuffer from = oldBuffer.duplicate();
+				from.limit(oldOffsets[i] + oldCapacity * bytesPerBall[i]);
+				from.position(oldOffsets[i]);
+				ByteBuffer to = buffer.duplicate();
+				to.position(newOffsets[i]);
+				to.put(from);
+			}
+			int size = oldBuffer.order(buffer.order()).getInt(SIZE_POSITION);
+			writeHeader();
+			setSize(size);
+		} finally {
+			endWrite();
+		}
+	}
+
+	public void setSize(int size) {
+		buffer.putInt(SIZE_POSITION, size);
+	}
+
+	public void beginWrite() {
+		if (writeDepth == 0) {
+			setSequence(sequence + 1);
+		}
+		writeDepth++;
+	}
+
+	public void endWrite() {
+		writeDepth--;
+		if (writeDepth == 0) {
+			setSequence(sequence + 1);
+		}
+	}
+
+	public void copy(int from, int to) {
+		setId(to, getId(from));
+		setX(to, getX(from));
+		setY(to, getY(from));
+		setxChange(to, getxChange(from));
+		setyChange(to, getyChange(from));
+		setDiameter(to, getDiameter(from));
+		setMass(to, getMass(from));
+		setColor(to, getColor(from));
+	}
+
+	public int getId(int index) {
+		return buffer.getInt(at(idOffset, index, 4));
+	}
+
+	public void setId(int index, int id) {
+		buffer.putInt(at(idOffset, index, 4), id);
+	}
+
+	public double getX(int index) {
+		return buffer.getDouble(at(xOffset, index, 8));
+	}
+
+	public void setX(int index, double d) {
+		buffer.putDouble(at(xOffset, index, 8), d);
+	}
+
+	public double getY(int index) {
+		return buffer.getDouble(at(yOffset, index, 8));
+	}
+
+	public void setY(int index, double d) {
+		buffer.putDouble(at(yOffset, index, 8), d);
+	}
+
+	public double getxChange(int index) {
+		return buffer.getDouble(at(xChangeOffset, index, 8));
+	}
+
+	public void setxChange(int index, double d) {
+		buffer.putDouble(at(xChangeOffset, index, 8), d);
+	}
+
+	public double getyChange(int index) {
+		return buffer.getDouble(at(yChangeOffset, index, 8));
+	}
+
+	public void setyChange(int index, double d) {
+		buffer.putDouble(at(yChangeOffset, index, 8), d);
+	}
+
+	public int getDiameter(int index) {
+		return buffer.getInt(at(diameterOffset, index, 4));
+	}
+
+	public void setDiameter(int index, int diameter) {
+		buffer.putInt(at(diameterOffset, index, 4), diameter);
+	}
+
+	public double getMass(int index) {
+		return buffer.getDouble(at(massOffset, index, 8));
+	}
+
+	public void setMass(int index, double d) {
+		buffer.putDouble(at(massOffset, index, 8), d);
+	}
+
+	public int getColor(int index) {
+		return buffer.getInt(at(colorOffset, index, 4));
+	}
+
+	public void setColor(int index, int color) {
+		buffer.putInt(at(colorOffset, index, 4), color);
+	}
+
+	/**
+	 * at
+	 * Method that returns where a ball's variable is in the memory, checking that the index is inside the storage
+	 * Without this check an index of -1 would read the header, while the arrays of HeapBallStorage would throw
+	 * @param the integer offset of the variable's block, the integer index of the ball and the integer bytes of the variable
+	 * @return the integer position of the variable in the memory
+	 */
+	private int at(int offset, int index, int bytes) {
+		if (index < 0 || index >= capacity) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Capacity: " + capacity);
+		}
+		return offset + index * bytes;
+	}
+
+	/**
+	 * layout
+	 * Method that decides where the block of each variable starts for a given number of balls
+	 * @param the integer number of balls that must fit
+	 * @return the integer total number of bytes needed
+	 */
+	private int layout(int numBalls) {
+		long offset = HEADER_SIZE;
+		idOffset = (int) offset;
+		offset = align(offset + (long) numBalls * 4);
+		xOffset = (int) offset;
+		offset = align(offset + (long) numBalls * 8);
+		yOffset = (int) offset;
+		offset = align(offset + (long) numBalls * 8);
+		xChangeOffset = (int) offset;
+		offset = align(offset + (long) numBalls * 8);
+		yChangeOffset = (int) offset;
+		offset = align(offset + (long) numBalls * 8);
+		diameterOffset = (int) offset;
+		offset = align(offset + (long) numBalls * 4);
+		massOffset = (int) offset;
+		offset = align(offset + (long) numBalls * 8);
+		colorOffset = (int) offset;
+		offset = align(offset + (long) numBalls * 4);
+
+		// A single buffer can't be larger than the largest integer
+		if (offset > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Too many balls for off heap storage: " + numBalls);
+		}
+		return (int) offset;
+	}
+
+	/**
+	 * createBuffer
+	 * Method that creates the memory, either by mapping the file or by allocating it directly
+	 * @param the integer number of bytes needed
+	 * @return the new ByteBuffer, which uses the byte order of the machine
+	 */
+	private ByteBuffer createBuffer(int bytes) {
+		ByteBuffer newBuffer;
+		if (channel == null) {
+			newBuffer = ByteBuffer.allocateDirect(bytes);
+		} else {
+			try {
+
+				// An existing file may be larger than the layout, so it is cut to size before mapping
+				file.setLength(bytes);
+				newBuffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+			} catch (IOException e) {
+				throw new IllegalStateException("Could not map ball storage file", e);
+			}
+		}
+		return newBuffer.order(ByteOrder.nativeOrder());
+	}
+
+	/**
+	 * writeHeader
+	 * Method that writes the layout of the memory into its first bytes
+	 */
+	private void writeHeader() {
+		buffer.putInt(MAGIC_POSITION, MAGIC);
+		buffer.putInt(CAPACITY_POSITION, capacity);
+		buffer.putInt(LITTLE_ENDIAN_POSITION, buffer.order() == ByteOrder.LITTLE_ENDIAN ? 1 : 0);
+		int[] offsets = { idOffset, xOffset, yOffset, xChangeOffset, yChangeOffset, diameterOffset, massOffset, colorOffset };
+		for (int i = 0; i < offsets.length; i++) {
+			buffer.putInt(OFFSETS_POSITION + i * 4, offsets[i]);
+		}
+		setSequence(sequence);
+	}
+
+	/**
+	 * setSequence
+	 * Method that changes the sequence and writes it into the header
+	 * The fences keep the earlier writes before the sequence, and the later writes after it, so a reader
+	 * never sees an even sequence next to balls that are halfway through being changed
+	 * @param the long new sequence
+	 */
+	private void setSequence(long newSequence) {
+		sequence = newSequence;
+		fullFence();
+		buffer.putLong(SEQUENCE_POSITION, sequence);
+		fullFence();
+	}
+
+	/**
+	 * fullFence
+	 * Method that stops memory accesses from being moved across it in either direction
+	 * A volatile write keeps the accesses before it from moving later, and the volatile read after it keeps the accesses
+	 * after it from moving earlier, and the two volatile accesses are never reordered with each other
+	 * @return the integer that was read, which is only returned so that the read is not left unused
+	 */
+	static int fullFence() {
+		fence = 0;
+		return fence;
+	}
+
+	/**
+	 * align
+	 * Method that rounds an offset up to the next multiple of the alignment
+	 * @param the long offset
+	 * @return the long aligned offset
+	 */
+	private static long align(long offset) {
+		return (offset + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+	}
+}
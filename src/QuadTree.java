@@ -6,9 +6,8 @@
  * The following code is the information for a QuadTree/node that stores balls within it
  */
 
-// Import rectangle for boundaries and ArrayList for storage
+// Import rectangle for boundaries
 import java.awt.Rectangle;   
-import java.util.ArrayList;
 
 // Class that holds divisions of 4 to increase efficiency in the collision detection
 public class QuadTree {
@@ -19,8 +18,14 @@ public class QuadTree {
 	// Capacity that the node must reach before it divides
 	private int capacityBeforeSplitting;
 	
-	// ArrayList of all the balls in the given tree
-	private ArrayList<BouncingBall> ballsInTree;
+	// Store that holds the balls, which are kept in the tree by their index in the store
+	private final BallStore balls;
+	
+	// IndexList of all the balls in the given tree
+	private IndexList ballsInTree;
+	
+	// IndexList of the balls that are too large to be placed in the nodes, kept separately so they don't crowd the smallest nodes
+	private IndexList largeBallsInTree;
 	
 	// The level of divisions that the tree has gone through at this point
 	private int level;
@@ -40,60 +45,76 @@ public class QuadTree {
 	/**
 	 * QuadTree
 	 * Constructor that creates the QuadTree/node
-	 * @param Rectangle of the QuadTree's jurisdiction, the integer capacity before the tree splits, and the integer level of divisions it is at
+	 * @param the store of the balls, Rectangle of the QuadTree's jurisdiction, the integer capacity before the tree splits,
+	 * and the integer level of divisions it is at
 	 */
-	QuadTree(Rectangle boundary, int capacityBeforeSplitting, int level) {
+	QuadTree(BallStore balls, Rectangle boundary, int capacityBeforeSplitting, int level) {
 		
 		// These are all required variables for the QuadTree/node
+		this.balls = balls;
 		this.boundary = boundary;
 		this.capacityBeforeSplitting = capacityBeforeSplitting;
-		this.ballsInTree = new ArrayList<BouncingBall>();
+		this.ballsInTree = new IndexList(capacityBeforeSplitting);
+		this.largeBallsInTree = new IndexList(1);
 		this.divided = false;
-		this.ableToTakePoints = true;
 		this.level = level;
+		
+		// The whole tree always splits, so that each of the first subsegments is exactly one tile of the tile workers
+		this.ableToTakePoints = level > 1;
 	}
 	
 	/**
 	 * clear
 	 * Method that clears the QuadTree
+	 * The subsegments are emptied but kept, so that the tree built every frame can reuse them instead of making new ones
 	 */
 	public void clear() {
 		
-		// Clears ArrayList of balls in the tree
+		// Clears ArrayLists of balls in the tree
 		ballsInTree.clear();
+		largeBallsInTree.clear();
 		
-		// Eliminates all the subsegments
-		northeast = null;
-		northwest = null;
-		southeast = null;
-		southwest = null;
+		// Empties all the subsegments that were in use
+		if (divided) {
+			northeast.clear();
+			northwest.clear();
+			southeast.clear();
+			southwest.clear();
+		}
 		
-		// Set the divided variable to false
+		// Set the divided variable to false, and the node can take balls again unless it is the whole tree
 		divided = false;
+		ableToTakePoints = level > 1;
 	}
 
 	/**
 	 * insert
 	 * Method that recursively inserts a bouncing ball into the QuadTree
-	 * @param a bouncing ball object to insert into the tree
+	 * @param the integer index of the ball in the store
 	 * @return boolean true if the ball was inserted, false otherwise
 	 */
-	public boolean insert(BouncingBall bouncingBall) {
+	public boolean insert(int index) {
 		
 		// If the ball is not in the boundary, it cannot be inserted
-		if(!bouncingBall.isInside(boundary)) {
+		if(!isInside(index)) {
 			return false;
 		}
 		
+		// Large balls are kept at the node they are first inserted into, which is the whole tree
+		if (balls.getDiameter(index) > BounceTester.LARGE_BALL_DIAMETER) {
+			largeBallsInTree.add(index);
+			return true;
+		}
+		
 		// If the current number of divisions exceeds the maximum, the ball should be added to the tree
 		if (level > BounceTester.MAX_DIVISIONS) {
-			ballsInTree.add(bouncingBall);
+			ballsInTree.add(index);
 			return true;
 		}
 		
 		// If the number of balls have exceeded the capacity threshold and it can take points, it adds to the tree
 		if(ballsInTree.size() < capacityBeforeSplitting && ableToTakePoints) {
-			ballsInTree.add(bouncingBall);
+			ballsInTree.add(index);
 			return true;
 
 			// Otherwise a subdivision must occur or ball must be placed in subdivision
@@ -105,13 +126,13 @@ public class QuadTree {
 			}
 			
 			// Ball is placed into the correct subdivision of a tree
-			if (northeast.insert(bouncingBall)) {
+			if (northeast.insert(index)) {
 				return true;
-			} else if (northwest.insert(bouncingBall)){
+			} else if (northwest.insert(index)){
 				return true;
-			} else if (southeast.insert(bouncingBall)) {
+			} else if (southeast.insert(index)) {
 				return true;
-			} else if (southwest.insert(bouncingBall)) {
+			} else if (southwest.insert(index)) {
 				return true;
 			}
 		}
@@ -120,6 +141,44 @@ public class QuadTree {
 		return false;
 	}
 
+	/**
+	 * isInside
+	 * Method that checks if a ball is within the boundary of the QuadTree/node, in the same way as BouncingBall.isInside
+	 * @param the integer index of the ball in the store
+	 * @return boolean true if the ball is within the bounds, false otherwise
+	 */
+	private boolean isInside(int index) {
+		int diameter = balls.getDiameter(index);
+		double x = balls.getX(index) + diameter / 2;
+		double y = balls.getY(index) + diameter / 2;
+		return x >= boundary.getX() - boundary.getWidth() && x <= boundary.getX() + boundary.getWidth()
+				&& y >= boundary.getY() - boundary.getHeight() && y <= boundary.getY() + boundary.getHeight();
+	}
+
+	/**
+	 * query
+	 * Method that recursively finds the balls in every smallest node that overlaps a range, not including large balls
+	 * @param a Rectangle range with x, y as center and w, h as half of the width and height, and an IndexList to add the balls to
+	 */
+	public void query(Rectangle range, IndexList found) {
+		
+		// If the range does not overlap the boundary, none of the balls can be in it
+		if (Math.abs(range.getX() - boundary.getX()) > range.getWidth() + boundary.getWidth()
+				|| Math.abs(range.getY() - boundary.getY()) > range.getHeight() + boundary.getHeight()) {
+			return;
+		}
+		
+		// Add the balls of the smallest nodes, otherwise search the subsegments
+		if (!isDivided()) {
+			found.addAll(ballsInTree);
+		} else {
+			northeast.query(range, found);
+			northwest.query(range, found);
+			southeast.query(range, found);
+			southwest.query(range, found);
+		}
+	}
+
 	/**
 	 * subdivide
 	 * Method that divides a QuadTree/node into subsegments
@@ -132,17 +191,25 @@ public class QuadTree {
 		int h = (int) boundary.getHeight();
 		int w = (int) boundary.getWidth();
 		
-		// Creates new rectangle boundaries for each of the subdivisions
-		Rectangle ne = new Rectangle(x + w/2, y - h/2, w/2, h/2);
-		Rectangle nw = new Rectangle(x - w/2, y - h/2, w/2, h/2);
-		Rectangle se = new Rectangle(x + w/2, y + h/2, w/2, h/2);
-		Rectangle sw = new Rectangle(x - w/2, y + h/2, w/2, h/2);
+		// Half sizes are rounded up, so that the subdivisions always cover the whole node and no ball falls between them
+		int halfW = w - w/2;
+		int halfH = h - h/2;
 		
-		// The nodes are created with new boundaries and another level
-		northeast = new QuadTree(ne, capacityBeforeSplitting, level+1);
-		northwest = new QuadTree(nw, capacityBeforeSplitting, level+1);
-		southeast = new QuadTree(se, capacityBeforeSplitting, level+1);
-		southwest = new QuadTree(sw, capacityBeforeSplitting, level+1);
+		// The nodes are only created the first time, since the boundaries stay the same until the tree's boundary changes
+		if (northeast == null) {
+			
+			// Creates new rectangle boundaries for each of the subdivisions
+			Rectangle ne = new Rectangle(x + w/2, y - h/2, halfW, halfH);
+			Rectangle nw = new Rectangle(x - w/2, y - h/2, halfW, halfH);
+			Rectangle se = new Rectangle(x + w/2, y + h/2, halfW, halfH);
+			Rectangle sw = new Rectangle(x - w/2, y + h/2, halfW, halfH);
+			
+			// The nodes are created with new boundaries and another level
+			northeast = new QuadTree(balls, ne, capacityBeforeSplitting, level+1);
+			northwest = new QuadTree(balls, nw, capacityBeforeSplitting, level+1);
+			southeast = new QuadTree(balls, se, capacityBeforeSplitting, level+1);
+			southwest = new QuadTree(balls, sw, capacityBeforeSplitting, level+1);
+		}
 		
 		// The tree has been divided
 		divided = true;
@@ -161,10 +228,23 @@ public class QuadTree {
 	/**
 	 * changeBoundary
 	 * Method that changes the boundaries of the QuadTree/node if the user resizes
+	 * The tree is cleared, since its subsegments and balls no longer match the new bounds, and must be filled again
 	 * @param a Rectangle object of the new bounds of the tree
 	 */
 	public void changeBoundary(Rectangle newBoundary) {
+		
+		// Nothing has to be rebuilt if the bounds are the same
+		if (newBoundary.equals(boundary)) {
+			return;
+		}
 		this.boundary = newBoundary;
+		clear();
+		
+		// The subsegments that were kept for reuse no longer match the new bounds
+		northeast = null;
+		northwest = null;
+		southeast = null;
+		southwest = null;
 	}
 	
 	/**
@@ -178,13 +258,22 @@ public class QuadTree {
 	
 	/**
 	 * getBallsInTree
-	 * Method that returns an ArrayList of all the balls in a tree
-	 * @return an ArrayList of all the balls in the tree
+	 * Method that returns the indices of all the balls in a tree
+	 * @return an IndexList of all the balls in the tree
 	 */
-	public ArrayList<BouncingBall> getBallsInTree() {
+	public IndexList getBallsInTree() {
 		return ballsInTree;
 	}
 
+	/**
+	 * getLargeBallsInTree
+	 * Method that returns the indices of the balls that were too large to be placed in the nodes
+	 * @return an IndexList of the large balls in the tree
+	 */
+	public IndexList getLargeBallsInTree() {
+		return largeBallsInTree;
+	}
+
 	/**
 	 * isDivided
 	 * Method that returns if the tree has been divided
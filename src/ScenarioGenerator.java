@@ -0,0 +1,165 @@
+/**
+ * ScenarioGenerator.java
+ * Version 1.0
+ * @author Yash Arora
+ * October 30th, 2018
+ * The following code generates reproducible sets of bouncing balls from a seed and a distribution
+ */
+
+// Required imports
+import java.util.SplittableRandom;
+
+// This is the class that creates the same balls every time it is given the same seed
+public class ScenarioGenerator {
+
+	// The different ways that the balls can be spread across the screen
+	enum Distribution {
+		UNIFORM, GAUSSIAN_CLUSTERS, LATTICE, DENSE_BLOB
+	}
+
+	// Number of clusters used by the gaussian cluster distribution
+	static final int NUMBER_OF_CLUSTERS = 8;
+
+	// Smallest and largest diameter of a ball when no sizes are given
+	static final int MIN_DIAMETER = 5;
+	static final int MAX_DIAMETER = 14;
+
+	// These are the variables that decide what is generated
+	private final SplittableRandom rand;
+	private int width;
+	private int height;
+
+	// Centers of the clusters, picked once from the seed so that every batch uses the same ones
+	private final double[] clusterX = new double[NUMBER_OF_CLUSTERS];
+	private final double[] clusterY = new double[NUMBER_OF_CLUSTERS];
+
+	/**
+	 * ScenarioGenerator
+	 * Constructor that creates a generator for a given seed
+	 * @param the long seed and the integer width and height of the area to fill
+	 */
+	ScenarioGenerator(long seed, int width, int height) {
+		this.rand = new SplittableRandom(seed);
+		this.width = width;
+		this.height = height;
+
+		// Clusters are kept away from the edges so that most of their balls are on the screen
+		for (int i = 0; i < NUMBER_OF_CLUSTERS; i++) {
+			clusterX[i] = width * (0.1 + 0.8 * rand.nextDouble());
+			clusterY[i] = height * (0.1 + 0.8 * rand.nextDouble());
+		}
+	}
+
+	/**
+	 * split
+	 * Method that creates a new random number generator from the seed, for one chunk of a batch of balls
+	 * @return the next SplittableRandom in the sequence of the seed
+	 */
+	public SplittableRandom split() {
+		return rand.split();
+	}
+
+	/**
+	 * fill
+	 * Method that sets the variables of a range of balls in a batch, always drawing from the random numbers in the same order
+	 * @param the store to fill, the integer index of the batch in the store, the integer range of the batch to fill (from inclusive, to exclusive),
+	 * the integer size of the batch, the distribution of the balls, the integer smallest and largest diameter and the SplittableRandom for this range
+	 */
+	void fill(BallStore store, int start, int from, int to, int numBalls, Distribution distribution, int minDiameter, int maxDiameter,
+			SplittableRandom chunkRandom) {
+		for (int i = from; i < to; i++) {
+			nextBall(store, start + i, i, numBalls, distribution, minDiameter, maxDiameter, chunkRandom);
+		}
+	}
+
+	/**
+	 * setArea
+	 * Method that changes the area that new balls are spawned in, used when the user resizes the screen
+	 * @param the integer width and height of the new area
+	 */
+	public void setArea(int width, int height) {
+		this.width = width;
+		this.height = height;
+	}
+
+	/**
+	 * nextBall
+	 * Method that sets the variables of a single ball
+	 * @param the store to fill, the integer index of the ball in the store, the integer index of the ball in its batch,
+	 * the integer size of the batch, the distribution of the balls, the integer smallest and largest diameter and the SplittableRandom to draw from
+	 */
+	private void nextBall(BallStore store, int storeIndex, int index, int numBalls, Distribution distribution, int minDiameter, int maxDiameter,
+			SplittableRandom chunkRandom) {
+
+		// Diameter is between the smallest and largest diameter, and the mass grows with the area of the ball
+		int diameter = chunkRandom.nextInt(maxDiameter - minDiameter + 1) + minDiameter;
+		double mass = (double) diameter * diameter;
+
+		// Position depends on the distribution
+		double x;
+		double y;
+		if (distribution == Distribution.GAUSSIAN_CLUSTERS) {
+			int cluster = chunkRandom.nextInt(NUMBER_OF_CLUSTERS);
+			x = clusterX[cluster] + nextGaussian(chunkRandom) * width / 20;
+			y = clusterY[cluster] + nextGaussian(chunkRandom) * height / 20;
+		} else if (distribution == Distribution.LATTICE) {
+			int columns = (int) Math.ceil(Math.sqrt(numBalls));
+			int rows = (numBalls + columns - 1) / columns;
+			x = (index % columns + 0.5) * width / columns;
+			y = (index / columns + 0.5) * height / rows;
+		} else if (distribution == Distribution.DENSE_BLOB) {
+			x = width / 2 + nextGaussian(chunkRandom) * width / 40;
+			y = height / 2 + nextGaussian(chunkRandom) * height / 40;
+		} else {
+
+			// Drawn only from the positions that keep the ball within the screen, so no ball has to be moved onto an edge
+			x = chunkRandom.nextInt(Math.max(width - 2 * diameter, 0) + 1) + diameter;
+			y = chunkRandom.nextInt(Math.max(height - 2 * diameter, 0) + 1) + diameter;
+		}
+
+		// Ball is kept within the screen, since the other distributions can place balls past the edges
+		if (distribution != Distribution.UNIFORM) {
+			x = Math.max(diameter, Math.min(width - diameter, (int) x));
+			y = Math.max(diameter, Math.min(height - diameter, (int) y));
+		}
+
+		// Ball angle is randomized and velocities are determined using TLAP
+		double angle = chunkRandom.nextDouble() * 2 * Math.PI;
+		double velocity = chunkRandom.nextDouble() * BounceTester.VELOCITY_MAXIMUM;
+		double xChange = (velocity * Math.cos(angle)) + 1;
+		double yChange = (velocity * Math.sin(angle)) + 1;
+
+		// Randomly chooses the direction of x and y velocities
+		if (chunkRandom.nextBoolean()) {
+			xChange = xChange * -1;
+		}
+		if (chunkRandom.nextBoolean()) {
+			yChange = yChange * -1;
+		}
+
+		// Makes sure that none of the velocities are 0
+		if ((int) xChange == 0) {
+			xChange++;
+		}
+		if ((int) yChange == 0) {
+			yChange++;
+		}
+
+		// Randomly sets a color for a ball from the shades of the gradient
+		int color = BallStore.GRADIENT[chunkRandom.nextInt(BallStore.GRADIENT_SHADES)];
+
+		store.setBall(storeIndex, x, y, diameter, mass, xChange, yChange, color);
+	}
+
+	/**
+	 * nextGaussian
+	 * Method that returns a normally distributed number using the Box-Muller transform, since SplittableRandom has none
+	 * @param the SplittableRandom to draw from
+	 * @return a double from a normal distribution with a mean of 0 and a standard deviation of 1
+	 */
+	private static double nextGaussian(SplittableRandom rand) {
+		double u = 1 - rand.nextDouble();
+		double v = rand.nextDouble();
+		return Math.sqrt(-2 * Math.log(u)) * Math.cos(2 * Math.PI * v);
+	}
+}
@@ -0,0 +1,165 @@
+/**
+ * SharedBallReader.java
+ * Version 1.0
+ * @author Yash Arora
+ * October 30th, 2018
+ * The following code reads the balls from a file that another process is simulating into
+ */
+
+// Input and output imports
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+// This is the class that copies the balls out of a file written by OffHeapBallStorage, without ever seeing a step that is half done
+public class SharedBallReader implements Closeable {
+
+	// The number of variables of each ball, and the bytes that each one takes, in the same order as the offsets in the header
+	private static final int NUM_VARIABLES = 8;
+	private static final int[] BYTES_PER_BALL = { 4, 8, 8, 8, 8, 4, 8, 4 };
+
+	// The file, and the memory it is mapped into, which is mapped again if the simulation makes the file larger
+	private final RandomAccessFile file;
+	private final FileChannel channel;
+	private ByteBuffer buffer;
+
+	// The byte order that the simulation wrote the file in
+	private ByteOrder order;
+
+	// Where the block of each variable starts in the memory, read from the header before every copy
+	private final int[] offsets = new int[NUM_VARIABLES];
+
+	/**
+	 * open
+	 * Method that opens a file that a simulation with a shared file is writing to
+	 * @param the File to read the balls from
+	 * @return the new reader
+	 */
+	static SharedBallReader open(File file) throws IOException {
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+		try {
+			return new SharedBallReader(randomAccessFile);
+		} catch (IOException | RuntimeException e) {
+			randomAccessFile.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * SharedBallReader
+	 * Constructor that maps the file and finds the byte order it was written in
+	 * @param the RandomAccessFile to read the balls from
+	 */
+	private SharedBallReader(RandomAccessFile file) throws IOException {
+		this.file = file;
+		this.channel = file.getChannel();
+		remap();
+
+		// The magic number only reads back correctly in the byte order that it was written in
+		if (buffer.order(ByteOrder.LITTLE_ENDIAN).getInt(OffHeapBallStorage.MAGIC_POSITION) == OffHeapBallStorage.MAGIC) {
+			order = ByteOrder.LITTLE_ENDIAN;
+		} else if (buffer.order(ByteOrder.BIG_ENDIAN).getInt(OffHeapBallStorage.MAGIC_POSITION) == OffHeapBallStorage.MAGIC) {
+			order = ByteOrder.BIG_ENDIAN;
+		} else {
+			throw new IOException("Not a shared ball file: " + file);
+		}
+		buffer.order(order);
+	}
+
+	/**
+	 * snapshot
+	 * Method that copies every ball into a storage, waiting while the simulation is in the middle of changing them
+	 * The balls are copied after reading an even sequence, and copied again if the sequence has changed by the end
+	 * @param the storage to copy the balls into, which is made larger if needed
+	 * @return the integer number of balls that were copied
+	 */
+	public int snapshot(HeapBallStorage into) throws IOException {
+		while (true) {
+			long before = buffer.getLong(OffHeapBallStorage.SEQUENCE_POSITION);
+			OffHeapBallStorage.fullFence();
+
+			// An odd sequence means the simulation is writing, so nothing that is read now can be trusted
+			if ((before & 1) == 0) {
+				int capacity = buffer.getInt(OffHeapBallStorage.CAPACITY_POSITION);
+				int size = buffer.getInt(OffHeapBallStorage.SIZE_POSITION);
+				for (int i = 0; i < NUM_VARIABLES; i++) {
+					offsets[i] = buffer.getInt(OffHeapBallStorage.OFFSETS_POSITION + i * 4);
+				}
+
+				// If the layout doesn't fit in the memory, the file has grown since it was mapped
+				if (!fits(capacity, size)) {
+					remap();
+				} else {
+					if (into.capacity() < size) {
+						into.grow(size);
+					}
+					copy(into, size);
+					OffHeapBallStorage.fullFence();
+					if (buffer.getLong(OffHeapBallStorage.SEQUENCE_POSITION) == before) {
+						return size;
+					}
+				}
+			}
+			Thread.yield();
+		}
+	}
+
+	/**
+	 * close
+	 * Method that closes the file, after which the reader must not be used
+	 */
+	public void close() throws IOException {
+		file.close();
+	}
+
+	/**
+	 * fits
+	 * Method that checks if the layout read from the header is inside the mapped memory
+	 * @param the integer capacity and the integer number of balls read from the header
+	 * @return boolean true if every block is inside the memory, false otherwise
+	 */
+	private boolean fits(int capacity, int size) {
+		if (size < 0 || size > capacity) {
+			return false;
+		}
+		for (int i = 0; i < NUM_VARIABLES; i++) {
+			if (offsets[i] < OffHeapBallStorage.HEADER_SIZE || (long) offsets[i] + (long) capacity * BYTES_PER_BALL[i] > buffer.capacity()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * copy
+	 * Method that copies the balls out of the memory, using the offsets read from the header
+	 * @param the storage to copy into and the integer number of balls
+	 */
+	private void copy(HeapBallStorage into, int size) {
+		for (int i = 0; i < size; i++) {
+			into.setId(i, buffer.getInt(offsets[0] + i * 4));
+			into.setX(i, buffer.getDouble(offsets[1] + i * 8));
+			into.setY(i, buffer.getDouble(offsets[2] + i * 8));
+			into.setxChange(i, buffer.getDouble(offsets[3] + i * 8));
+			into.setyChange(i, buffer.getDouble(offsets[4] + i * 8));
+			into.setDiameter(i, buffer.getInt(offsets[5] + i * 4));
+			into.setMass(i, buffer.getDouble(offsets[6] + i * 8));
+			into.setColor(i, buffer.getInt(offsets[7] + i * 4));
+		}
+	}
+
+	/**
+	 * remap
+	 * Method that maps the whole file again, so that the memory covers everything the simulation has written
+	 */
+	private void remap() throws IOException {
+		buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		if (order != null) {
+			buffer.order(order);
+		}
+	}
+}
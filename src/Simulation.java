@@ -0,0 +1,476 @@
+/**
+ * Simulation.java
+ * Version 1.0
+ * @author Yash Arora
+ * October 30th, 2018
+ * The following code is the information for moving and colliding the balls, without drawing them to the screen
+ */
+
+// Import rectangle for boundaries and Arrays for sorting
+import java.awt.Rectangle;
+import java.util.Arrays;
+
+// This is the class that runs the simulation one step at a time, used by the window and by the tile workers
+public class Simulation {
+
+	// Store that holds all of the balls that are simulated
+	private final BallStore balls;
+
+	// QuadTree that will be used to make collision detection more efficient
+	private final QuadTree qTree;
+
+	// Collisions of each step, which are sent to the listeners once all collisions have been checked
+	private final CollisionEvents collisionEvents = new CollisionEvents(CollisionEvents.DEFAULT_CAPACITY);
+
+	// IndexList and Rectangle that are reused to find the balls near a large ball
+	private final IndexList nearbyBalls = new IndexList(CollisionEvents.DEFAULT_CAPACITY);
+	private final Rectangle range = new Rectangle();
+
+	// Whether the result of a step must be the same however the screen is split between tile workers
+	private boolean tileIndependent = false;
+
+	// Every pair with a large ball in tile independent mode, stored as the smaller id followed by the larger id
+	private long[] pairs = new long[CollisionEvents.DEFAULT_CAPACITY];
+	private int numPairs = 0;
+
+	// How much each ball is moved and sped up by its pairs with large balls, stored by index and added on after the nodes are done
+	private double[] xShifts = new double[0];
+	private double[] yShifts = new double[0];
+	private double[] xChangeShifts = new double[0];
+	private double[] yChangeShifts = new double[0];
+
+	// Largest diameter of the balls in the QuadTree's nodes, which limits how far away a touching ball can be
+	private int largestSmallDiameter = 0;
+
+	// Size of the area that the balls bounce around in
+	private int width;
+	private int height;
+
+	// Whether or not balls collide with each other, otherwise they only bounce off the walls
+	private boolean collisionsEnabled = true;
+
+	/**
+	 * Simulation
+	 * Constructor that creates a simulation of the balls in a store
+	 * @param the store of the balls and the integer width and height of the area
+	 */
+	Simulation(BallStore balls, int width, int height) {
+		this.balls = balls;
+		this.width = width;
+		this.height = height;
+		
+		// Create the QuadTree with the given boundary, capacity before splitting, and initial level of 1
+		this.qTree = new QuadTree(balls, new Rectangle(width / 2, height / 2, width / 2, height / 2), BounceTester.CAPACITY_BEFORE_SPLITTING, 1);
+	}
+
+	/**
+	 * step
+	 * Method that moves the simulation forward by one step
+	 */
+	public void step() {
+		balls.beginWrite();
+		try {
+			buildTree();
+			detectCollisions();
+			updatePositions();
+		} finally {
+			balls.endWrite();
+		}
+	}
+
+	/**
+	 * buildTree
+	 * Method that clears the QuadTree and adds all the balls into it again
+	 */
+	public void buildTree() {
+		qTree.clear();
+		largestSmallDiameter = 0;
+		for (int i = 0; i < balls.size(); i++) {
+			qTree.insert(i);
+			if (balls.getDiameter(i) <= BounceTester.LARGE_BALL_DIAMETER) {
+				largestSmallDiameter = Math.max(largestSmallDiameter, balls.getDiameter(i));
+			}
+		}
+	}
+
+	/**
+	 * detectCollisions
+	 * Method that collides all the touching balls and then sends the collisions to the listeners
+	 */
+	public void detectCollisions() {
+		if (!collisionsEnabled) {
+			return;
+		}
+		
+		balls.beginWrite();
+		try {
+			if (tileIndependent) {
+			
+				// The large balls touch balls in many nodes, so they are collided from the positions at the start of the step,
+				// which every tile worker that can see the pair agrees on, and the changes are added after the nodes are done
+				checkLargeBallCollisions(qTree);
+				resolveLargeBallPairs();
+				iterateThroughBallsInTree(qTree);
+				applyShifts();
+			} else {
+			
+				// Checks through each smallest existing QuadTree node for collisions
+				iterateThroughBallsInTree(qTree);
+			
+				// Checks the large balls, which are not in any of the nodes, against everything they overlap
+				checkLargeBallCollisions(qTree);
+			}
+		} finally {
+			balls.endWrite();
+		}
+		
+		// Send the collisions of this step to the listeners
+		collisionEvents.dispatch();
+	}
+
+	/**
+	 * resize
+	 * Method that changes the area that the balls bounce around in
+	 * @param the integer new width and height of the area
+	 */
+	public void resize(int newWidth, int newHeight) {
+		this.width = newWidth;
+		this.height = newHeight;
+		
+		// Changes the QuadTree's boundaries based on these new dimensions
+		qTree.changeBoundary(new Rectangle(width / 2, height / 2, width / 2, height / 2));
+	}
+
+	/**
+	 * setCollisionsEnabled
+	 * Method that sets whether or not balls collide with each other
+	 * @param boolean true if balls should collide, false if they should pass through each other
+	 */
+	public void setCollisionsEnabled(boolean enabled) {
+		this.collisionsEnabled = enabled;
+	}
+
+	/**
+	 * setTileIndependent
+	 * Method that sets whether the result of a step must be the same however the screen is split between tile workers
+	 * In this mode the balls of each node are collided in order of their ids, and large balls are collided from the positions
+	 * at the start of the step with their collisions added up, so unlike the window the balls around them can slowly speed up
+	 * @param boolean true for the tile workers and the single process that they are compared against, false otherwise
+	 */
+	public void setTileIndependent(boolean tileIndependent) {
+		this.tileIndependent = tileIndependent;
+	}
+
+	/**
+	 * getTree
+	 * Method that returns the QuadTree of the simulation
+	 * @return the QuadTree that holds the balls
+	 */
+	public QuadTree getTree() {
+		return qTree;
+	}
+
+	/**
+	 * getCollisionEvents
+	 * Method that returns the collision events, so that listeners can be added
+	 * @return the CollisionEvents of the simulation
+	 */
+	public CollisionEvents getCollisionEvents() {
+		return collisionEvents;
+	}
+
+	/**
+	 * iterateThroughBallsInTree
+	 * Method that recursively iterates through the tree or all its nodes and calls method to check collisions
+	 * @param a QuadTree that holds a certain number of balls or nodes that lead to more balls
+	 */
+	public void iterateThroughBallsInTree(QuadTree qTree) {
+		
+		// If the QuadTree or node has not divided, check for collisions in that segment
+		if (!qTree.isDivided()) {
+			checkCollisions(qTree.getBallsInTree());
+			
+			// Otherwise, repeat this with all the subsegments
+		} else {
+			iterateThroughBallsInTree(qTree.northeast);
+			iterateThroughBallsInTree(qTree.northwest);
+			iterateThroughBallsInTree(qTree.southeast);
+			iterateThroughBallsInTree(qTree.southwest);
+		}
+	}
+	
+	/**
+	 * checkLargeBallCollisions
+	 * Method that checks the collisions of the large balls, with each other and with the balls in the nodes they overlap
+	 * In tile independent mode, the touching pairs are only gathered here and collided later by resolveLargeBallPairs
+	 * @param a QuadTree that holds the large balls
+	 */
+	public void checkLargeBallCollisions(QuadTree qTree) {
+		IndexList largeBalls = qTree.getLargeBallsInTree();
+		numPairs = 0;
+		
+		for (int i = 0; i < largeBalls.size(); i++) {
+			int large = largeBalls.get(i);
+			
+			// There are only a few large balls, so they are all checked against each other
+			for (int j = i + 1; j < largeBalls.size(); j++) {
+				if (seeIfCollided(large, largeBalls.get(j))) {
+					handleLargeBallCollision(large, largeBalls.get(j));
+				}
+			}
+			
+			// A touching ball's center is at most the sum of the radii away, and the QuadTree places balls by a point
+			// that is up to another radius further, so half of this diameter plus the largest small diameter is enough
+			int reach = balls.getDiameter(large) / 2 + largestSmallDiameter + 1;
+			range.setBounds((int) balls.getX(large), (int) balls.getY(large), reach, reach);
+			nearbyBalls.clear();
+			qTree.query(range, nearbyBalls);
+			
+			for (int j = 0; j < nearbyBalls.size(); j++) {
+				if (seeIfCollided(large, nearbyBalls.get(j))) {
+					handleLargeBallCollision(large, nearbyBalls.get(j));
+				}
+			}
+		}
+	}
+	
+	/**
+	 * handleLargeBallCollision
+	 * Method that collides a large ball with a ball it touches, or keeps the pair for later in tile independent mode
+	 * @param the integer index of the large ball and of the ball that it touches
+	 */
+	private void handleLargeBallCollision(int large, int other) {
+		if (!tileIndependent) {
+			collideBalls(large, other, false);
+			return;
+		}
+		
+		// Pairs are stored as the smaller id followed by the larger id, so that sorting orders them by id
+		int smallerId = Math.min(balls.getId(large), balls.getId(other));
+		int largerId = Math.max(balls.getId(large), balls.getId(other));
+		if (numPairs == pairs.length) {
+			pairs = Arrays.copyOf(pairs, pairs.length * 2);
+		}
+		pairs[numPairs] = ((long) smallerId << 32) | largerId;
+		numPairs++;
+	}
+	
+	/**
+	 * checkCollisions
+	 * Checks collisions ONLY with balls within the same smallest rectangle
+	 * @param an IndexList of all the balls in a certain smallest subsegment
+	 */
+	public void checkCollisions(IndexList ballsThatCanCollide) {
+		
+		// In tile independent mode the balls are collided in order of their ids, since their order in the node depends on the process
+		if (tileIndependent) {
+			sortById(ballsThatCanCollide);
+		}
+					
+		// Efficiently checks the collisions given only the balls in the segment
+		for (int i = 0; i < ballsThatCanCollide.size(); i++) {
+			for (int j = i + 1; j < ballsThatCanCollide.size(); j++) {
+				
+				// Balls can collide if seeIfCollided returns true
+				if (seeIfCollided(ballsThatCanCollide.get(i), ballsThatCanCollide.get(j))) {
+					
+					// Call method to commit action on ball collision
+					collideBalls(ballsThatCanCollide.get(i), ballsThatCanCollide.get(j), false);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * sortById
+	 * Method that sorts the balls of a node by their ids, using insertion sort since a node only holds a few balls
+	 * @param an IndexList of the balls in the node
+	 */
+	private void sortById(IndexList indices) {
+		for (int i = 1; i < indices.size(); i++) {
+			int index = indices.get(i);
+			int ballId = balls.getId(index);
+			int j = i - 1;
+			while (j >= 0 && balls.getId(indices.get(j)) > ballId) {
+				indices.set(j + 1, indices.get(j));
+				j--;
+			}
+			indices.set(j + 1, index);
+		}
+	}
+	
+	/**
+	 * resolveLargeBallPairs
+	 * Method that collides every pair found by checkLargeBallCollisions in order of their ids, from the positions at the start
+	 * of the step, and keeps the changes in the shifts so that they can be added after the nodes have been collided
+	 */
+	private void resolveLargeBallPairs() {
+		Arrays.sort(pairs, 0, numPairs);
+		int numBalls = balls.size();
+		if (xShifts.length < numBalls) {
+			xShifts = new double[numBalls];
+			yShifts = new double[numBalls];
+			xChangeShifts = new double[numBalls];
+			yChangeShifts = new double[numBalls];
+		}
+		Arrays.fill(xShifts, 0, numBalls, 0);
+		Arrays.fill(yShifts, 0, numBalls, 0);
+		Arrays.fill(xChangeShifts, 0, numBalls, 0);
+		Arrays.fill(yChangeShifts, 0, numBalls, 0);
+		
+		for (int i = 0; i < numPairs; i++) {
+			collideBalls(balls.indexOf((int) (pairs[i] >>> 32)), balls.indexOf((int) pairs[i]), true);
+		}
+	}
+	
+	/**
+	 * applyShifts
+	 * Method that adds the changes kept by resolveLargeBallPairs onto the balls
+	 */
+	private void applyShifts() {
+		for (int i = 0; i < balls.size(); i++) {
+			balls.setX(i, balls.getX(i) + xShifts[i]);
+			balls.setY(i, balls.getY(i) + yShifts[i]);
+			balls.setxChange(i, balls.getxChange(i) + xChangeShifts[i]);
+			balls.setyChange(i, balls.getyChange(i) + yChangeShifts[i]);
+		}
+	}
+	
+	/**
+	 * collideBalls
+	 * Method to perform an action upon ball collision, given two balls
+	 * The balls bounce off each other elastically, so a heavier ball is pushed less than a lighter one
+	 * @param the integer index of the first ball in the collision (a) and of the second ball in the collision (b),
+	 * and whether the changes are kept in the shifts instead of being made to the balls straight away
+	 */
+	private void collideBalls(int a, int b, boolean deferred) {
+		
+		// Use TLAP to calculate required variables
+		double xDiff = balls.getX(b) - balls.getX(a);
+		double yDiff = balls.getY(b) - balls.getY(a);
+		double length = Math.sqrt(Math.pow(xDiff, 2) + Math.pow(yDiff, 2));
+		if (length == 0) {
+			length = 1;
+			xDiff = 1;
+		}
+		double cosTheta = xDiff/length;
+		double sinTheta = yDiff/length;
+		double radiusSum = ((double)balls.getDiameter(a))/2 + ((double)balls.getDiameter(b))/2;
+		
+		// Each ball's share of the collision depends on the other ball's mass
+		double totalMass = balls.getMass(a) + balls.getMass(b);
+		double aShare = balls.getMass(b) / totalMass;
+		double bShare = balls.getMass(a) / totalMass;
+		
+		// The balls touch on the edge of the first ball, along the line between them
+		double contactX = balls.getX(a) + ((double)balls.getDiameter(a))/2 * cosTheta;
+		double contactY = balls.getY(a) + ((double)balls.getDiameter(a))/2 * sinTheta;
+		
+		// Move the balls apart so that they are no longer colliding
+		double overlap = radiusSum + 1 - length;
+		shift(a, -overlap * aShare * cosTheta, -overlap * aShare * sinTheta, 0, 0, deferred);
+		shift(b, overlap * bShare * cosTheta, overlap * bShare * sinTheta, 0, 0, deferred);
+		
+		// Find how fast the balls are moving towards each other along the line between them
+		double approachSpeed = (balls.getxChange(a) - balls.getxChange(b)) * cosTheta + (balls.getyChange(a) - balls.getyChange(b)) * sinTheta;
+		
+		// If they are already moving apart, their velocities don't change, and resting balls that are only
+		// pushed apart are not sent to the listeners since nothing bounced
+		if (approachSpeed <= 0) {
+			return;
+		}
+		
+		// Otherwise the velocities along that line are exchanged, weighted by mass
+		shift(a, 0, 0, -2 * aShare * approachSpeed * cosTheta, -2 * aShare * approachSpeed * sinTheta, deferred);
+		shift(b, 0, 0, 2 * bShare * approachSpeed * cosTheta, 2 * bShare * approachSpeed * sinTheta, deferred);
+		
+		// The impulse is the momentum that was passed from one ball to the other
+		collisionEvents.record(balls.getId(a), balls.getId(b), contactX, contactY, 2 * aShare * approachSpeed * balls.getMass(a));
+	}
+	
+	/**
+	 * shift
+	 * Method that moves a ball and changes its velocity, or adds the changes to its shifts
+	 * @param the integer index of the ball, the double changes of its x and y position and of its x and y velocity,
+	 * and whether the changes are kept in the shifts
+	 */
+	private void shift(int index, double x, double y, double xChange, double yChange, boolean deferred) {
+		if (deferred) {
+			xShifts[index] += x;
+			yShifts[index] += y;
+			xChangeShifts[index] += xChange;
+			yChangeShifts[index] += yChange;
+		} else {
+			balls.setX(index, balls.getX(index) + x);
+			balls.setY(index, balls.getY(index) + y);
+			balls.setxChange(index, balls.getxChange(index) + xChange);
+			balls.setyChange(index, balls.getyChange(index) + yChange);
+		}
+	}
+
+	/**
+	 * seeIfCollided
+	 * Method that checks if two balls are colliding
+	 * @param the integer index of the first ball in the collision (a) and of the second ball in the collision (b)
+	 * @return boolean true if the balls have collided, false if not 
+	 */
+	public boolean seeIfCollided(int a, int b) {
+		
+		// Use TLAP to calculate necessary variables
+		double xDiff = balls.getX(b) - balls.getX(a);
+		double yDiff = balls.getY(b) - balls.getY(a);
+		double radiusSum = ((double)balls.getDiameter(a))/2 + ((double) balls.getDiameter(b))/2;
+		
+		// If the distance between them is less than or equal to the sum of their radii, then a collision has occurred
+		// This is checked without a square root, since it is called for every ball near every other ball
+		if (xDiff * xDiff + yDiff * yDiff <= radiusSum * radiusSum) {	
+			return true;
+		
+			// Otherwise there is no collision
+		} else {
+			return false;
+		}
+		
+	}	
+	
+	/**
+	 * updatePositions
+	 * Method for updating the positions of the balls
+	 */
+	public void updatePositions() {
+		balls.beginWrite();
+		try {
+
+			// Iterate through all balls, by index so that no handles are needed
+			for (int i = 0; i < balls.size(); i++) {
+			
+				// Ball must bounce off top and bottom of screen
+				if (balls.getX(i) <= balls.getDiameter(i)/2) {
+					balls.setxChange(i, -1 * balls.getxChange(i));
+					balls.setX(i, balls.getDiameter(i)/2);
+				}
+				if (balls.getX(i) + balls.getDiameter(i)/2 >= width) {
+					balls.setxChange(i, -1 * balls.getxChange(i));
+					balls.setX(i, width - balls.getDiameter(i)/2);
+				}
+			
+				// Ball must bounce off left and right of screen
+				if (balls.getY(i) <= balls.getDiameter(i)/2) {
+					balls.setyChange(i, -1 * balls.getyChange(i));
+					balls.setY(i, balls.getDiameter(i)/2);
+				}
+				if (balls.getY(i) + balls.getDiameter(i)/2 >= height) {
+					balls.setyChange(i, -1 * balls.getyChange(i));
+					balls.setY(i, height - balls.getDiameter(i)/2);
+				}
+			
+				// The x and y coordinates of the ball must change dependent on their x and y velocities
+				balls.setX(i, balls.getX(i) + balls.getxChange(i));
+				balls.setY(i, balls.getY(i) + balls.getyChange(i));
+			}
+		} finally {
+			balls.endWrite();
+		}
+	}
+	
+}
@@ -0,0 +1,215 @@
+/**
+ * TileCoordinator.java
+ * Version 1.0
+ * @author Yash Arora
+ * October 30th, 2018
+ * The following code starts the tile workers and passes balls between them every step
+ */
+
+// Input and output imports
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+// This is the class that splits the screen into the QuadTree's top level subsegments, with one worker process for each
+public class TileCoordinator {
+
+	// These are the variables that describe how the screen is split
+	private final int width;
+	private final int height;
+	private final int haloWidth;
+
+	// Each worker's process and the streams that are connected to it, stored by tile
+	private final Process[] workers = new Process[TileWorker.NUMBER_OF_TILES];
+	private final Socket[] sockets = new Socket[TileWorker.NUMBER_OF_TILES];
+	private final DataInputStream[] in = new DataInputStream[TileWorker.NUMBER_OF_TILES];
+	private final DataOutputStream[] out = new DataOutputStream[TileWorker.NUMBER_OF_TILES];
+
+	// How long to wait for each worker to connect before giving up, in milliseconds
+	static final int WORKER_CONNECT_TIMEOUT = 30000;
+
+	// The balls received from each worker during a step, before they are passed on
+	private final BallStore[] inboxes = new BallStore[TileWorker.NUMBER_OF_TILES];
+
+	// IndexLists that are reused to hold the balls sent to a worker, one for the inbox of each tile that they came from
+	private final IndexList[] outgoing = new IndexList[TileWorker.NUMBER_OF_TILES];
+
+	/**
+	 * TileCoordinator
+	 * Constructor that starts a worker process for every tile, and each worker spawns the starting balls of its own tile
+	 * @param the long seed of the scenario, the distribution of the balls, the integer number of balls and large balls,
+	 * the integer width and height of the screen, the integer width of the halo around each tile, and whether or not balls collide
+	 */
+	TileCoordinator(long seed, ScenarioGenerator.Distribution distribution, int numBalls, int numLargeBalls, int width, int height,
+			int haloWidth, boolean collisionsEnabled) throws IOException {
+		this.width = width;
+		this.height = height;
+		this.haloWidth = haloWidth;
+
+		// Workers are started with the same java and classes as this process, and connect back through a local socket
+		ServerSocket server = new ServerSocket(0, TileWorker.NUMBER_OF_TILES, InetAddress.getLoopbackAddress());
+		boolean connected = false;
+		try {
+			server.setSoTimeout(WORKER_CONNECT_TIMEOUT);
+			String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+			String classPath = System.getProperty("java.class.path");
+			for (int tile = 0; tile < TileWorker.NUMBER_OF_TILES; tile++) {
+				workers[tile] = new ProcessBuilder(java, "-cp", classPath, "TileWorker", String.valueOf(server.getLocalPort()),
+						String.valueOf(tile), String.valueOf(width), String.valueOf(height), String.valueOf(haloWidth),
+						String.valueOf(collisionsEnabled), String.valueOf(seed), distribution.name(), String.valueOf(numBalls),
+						String.valueOf(numLargeBalls)).inheritIO().start();
+			}
+
+			// Workers can connect in any order, so each one says which tile it is for
+			for (int i = 0; i < TileWorker.NUMBER_OF_TILES; i++) {
+				Socket socket = server.accept();
+				socket.setTcpNoDelay(true);
+				socket.setSoTimeout(WORKER_CONNECT_TIMEOUT);
+				DataInputStream socketIn = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+				int tile = socketIn.readInt();
+
+				// Spawning and simulating a tile can take a while, so there is no time limit after the worker has connected
+				socket.setSoTimeout(0);
+				sockets[tile] = socket;
+				in[tile] = socketIn;
+				out[tile] = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+				inboxes[tile] = new BallStore(null, 16);
+				outgoing[tile] = new IndexList(16);
+			}
+			connected = true;
+		} finally {
+			server.close();
+
+			// If a worker failed to start or connect, the ones that did start would otherwise be left running
+			if (!connected) {
+				destroyWorkers();
+			}
+		}
+	}
+
+	/**
+	 * step
+	 * Method that moves every worker forward by one step, passing the halos and the balls that changed tiles between them
+	 */
+	public void step() throws IOException {
+		for (int tile = 0; tile < TileWorker.NUMBER_OF_TILES; tile++) {
+			out[tile].writeInt(TileWorker.STEP);
+			out[tile].flush();
+		}
+
+		// Every worker sends the balls near its edges, which are passed on to the tiles whose halo they are in
+		receiveFromAll();
+		for (int tile = 0; tile < TileWorker.NUMBER_OF_TILES; tile++) {
+			for (int from = 0; from < TileWorker.NUMBER_OF_TILES; from++) {
+				outgoing[from].clear();
+				if (from == tile) {
+					continue;
+				}
+				for (int i = 0; i < inboxes[from].size(); i++) {
+					if (TileWorker.isNearTile(inboxes[from], i, tile, width, height, haloWidth)) {
+						outgoing[from].add(i);
+					}
+				}
+			}
+			sendOutgoing(tile);
+		}
+
+		// Every worker then sends the balls that left its tile, which are passed on to their new tile
+		receiveFromAll();
+		for (int tile = 0; tile < TileWorker.NUMBER_OF_TILES; tile++) {
+			for (int from = 0; from < TileWorker.NUMBER_OF_TILES; from++) {
+				outgoing[from].clear();
+				for (int i = 0; i < inboxes[from].size(); i++) {
+					if (TileWorker.tileOf(inboxes[from], i, width, height) == tile) {
+						outgoing[from].add(i);
+					}
+				}
+			}
+			sendOutgoing(tile);
+		}
+	}
+
+	/**
+	 * sendOutgoing
+	 * Method that sends the balls picked out of every inbox to a worker, in the same format as TileWorker.writeBalls
+	 * @param the integer tile of the worker to send to
+	 */
+	private void sendOutgoing(int tile) throws IOException {
+		int numBalls = 0;
+		for (int from = 0; from < TileWorker.NUMBER_OF_TILES; from++) {
+			numBalls += outgoing[from].size();
+		}
+		out[tile].writeInt(numBalls);
+		for (int from = 0; from < TileWorker.NUMBER_OF_TILES; from++) {
+			for (int i = 0; i < outgoing[from].size(); i++) {
+				TileWorker.writeBall(out[tile], inboxes[from], outgoing[from].get(i));
+			}
+		}
+		out[tile].flush();
+	}
+
+	/**
+	 * collect
+	 * Method that copies every worker's balls into a store
+	 * This puts the whole screen back into one process, so it is only meant for DistributedHarness to check the workers
+	 * @param the store to add the balls to
+	 */
+	void collect(BallStore balls) throws IOException {
+		for (int tile = 0; tile < TileWorker.NUMBER_OF_TILES; tile++) {
+			out[tile].writeInt(TileWorker.DUMP);
+			out[tile].flush();
+			TileWorker.readBalls(in[tile], balls);
+		}
+	}
+
+	/**
+	 * close
+	 * Method that tells every worker to quit and waits for the processes to end
+	 */
+	public void close() throws IOException, InterruptedException {
+		for (int tile = 0; tile < TileWorker.NUMBER_OF_TILES; tile++) {
+			out[tile].writeInt(TileWorker.QUIT);
+			out[tile].flush();
+		}
+		for (int tile = 0; tile < TileWorker.NUMBER_OF_TILES; tile++) {
+			workers[tile].waitFor();
+			sockets[tile].close();
+		}
+	}
+
+	/**
+	 * destroyWorkers
+	 * Method that ends every worker process that was started and closes every socket that was connected
+	 */
+	private void destroyWorkers() {
+		for (int tile = 0; tile < TileWorker.NUMBER_OF_TILES; tile++) {
+			if (workers[tile] != null) {
+				workers[tile].destroyForcibly();
+			}
+			if (sockets[tile] != null) {
+				try {
+					sockets[tile].close();
+				} catch (IOException e) {
+					// The worker has already been ended, so there is nothing left to do with its socket
+				}
+			}
+		}
+	}
+
+	/**
+	 * receiveFromAll
+	 * Method that empties the inboxes and fills each one with the balls sent by its worker
+	 */
+	private void receiveFromAll() throws IOException {
+		for (int tile = 0; tile < TileWorker.NUMBER_OF_TILES; tile++) {
+			inboxes[tile].truncate(0);
+			TileWorker.readBalls(in[tile], inboxes[tile]);
+		}
+	}
+}
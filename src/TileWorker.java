@@ -0,0 +1,291 @@
+/**
+ * TileWorker.java
+ * Version 1.0
+ * @author Yash Arora
+ * October 30th, 2018
+ * The following code is a separate process that simulates the balls in one quarter of the screen
+ */
+
+// Input and output imports
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+
+// Utilities
+import java.util.function.IntPredicate;
+
+// This is the class for one worker process, which owns the balls in one of the QuadTree's top level subsegments
+public class TileWorker {
+
+	// Commands that the coordinator sends to the workers
+	static final int STEP = 1;
+	static final int DUMP = 2;
+	static final int QUIT = 3;
+
+	// Tiles, numbered in the same order as the QuadTree's subsegments
+	static final int NORTHEAST = 0;
+	static final int NORTHWEST = 1;
+	static final int SOUTHEAST = 2;
+	static final int SOUTHWEST = 3;
+	static final int NUMBER_OF_TILES = 4;
+
+	// These are the variables that describe the worker's part of the screen
+	private final int tile;
+	private final int width;
+	private final int height;
+	private final int haloWidth;
+
+	// The worker's own balls, followed by the balls near its edges during a step
+	private final BallStore balls;
+	private final Simulation simulation;
+
+	// IndexList that is reused to hold the balls that are sent to the coordinator
+	private final IndexList outgoing = new IndexList(CollisionEvents.DEFAULT_CAPACITY);
+
+	// Streams that are connected to the coordinator
+	private final DataInputStream in;
+	private final DataOutputStream out;
+
+	// Main method connects to the coordinator and runs commands until told to quit
+	public static void main(String[] args) throws IOException {
+		int port = Integer.parseInt(args[0]);
+		int tile = Integer.parseInt(args[1]);
+		int width = Integer.parseInt(args[2]);
+		int height = Integer.parseInt(args[3]);
+		int haloWidth = Integer.parseInt(args[4]);
+		boolean collisionsEnabled = Boolean.parseBoolean(args[5]);
+		long seed = Long.parseLong(args[6]);
+		ScenarioGenerator.Distribution distribution = ScenarioGenerator.Distribution.valueOf(args[7]);
+		int numBalls = Integer.parseInt(args[8]);
+		int numLargeBalls = Integer.parseInt(args[9]);
+
+		Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+		socket.setTcpNoDelay(true);
+		try {
+			TileWorker worker = new TileWorker(socket, tile, width, height, haloWidth, collisionsEnabled, new ScenarioGenerator(seed, width, height));
+			worker.spawn(distribution, numBalls, numLargeBalls);
+			worker.run();
+		} finally {
+			socket.close();
+		}
+	}
+
+	/**
+	 * TileWorker
+	 * Constructor that creates a worker for one tile
+	 * @param the Socket connected to the coordinator, the integer tile, the integer width and height of the whole screen,
+	 * the integer width of the halo around the tile, whether or not balls collide, and the generator of the scenario
+	 */
+	TileWorker(Socket socket, int tile, int width, int height, int haloWidth, boolean collisionsEnabled, ScenarioGenerator generator)
+			throws IOException {
+		this.tile = tile;
+		this.width = width;
+		this.height = height;
+		this.haloWidth = haloWidth;
+		this.balls = new BallStore(generator, 16);
+
+		// Every worker simulates the whole screen, so the walls and the QuadTree's boundary are the same as in a single process
+		this.simulation = new Simulation(balls, width, height);
+		this.simulation.setCollisionsEnabled(collisionsEnabled);
+		this.simulation.setTileIndependent(true);
+
+		this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+		this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+		// The coordinator needs to know which tile each connection is for, before the worker spends time spawning its balls
+		out.writeInt(tile);
+		out.flush();
+	}
+
+	/**
+	 * spawn
+	 * Method that creates the starting balls of the worker's tile, without the balls of the other tiles ever being sent or kept
+	 * @param the distribution of the balls and the integer number of balls and large balls on the whole screen
+	 */
+	void spawn(ScenarioGenerator.Distribution distribution, int numBalls, int numLargeBalls) {
+		spawnScenario(balls, distribution, numBalls, numLargeBalls, index -> tileOf(balls, index, width, height) == tile);
+	}
+
+	/**
+	 * spawnScenario
+	 * Method that spawns the starting balls and large balls, keeping only the ones that match a condition
+	 * The balls are the same for the same seed, whether they are all kept in one process or split between the workers
+	 * @param the store to spawn into, the distribution of the balls, the integer number of balls and large balls,
+	 * and an IntPredicate that returns true for the indices of the balls to keep
+	 */
+	static void spawnScenario(BallStore store, ScenarioGenerator.Distribution distribution, int numBalls, int numLargeBalls,
+			IntPredicate condition) {
+		store.spawnWhere(numBalls, distribution, ScenarioGenerator.MIN_DIAMETER, ScenarioGenerator.MAX_DIAMETER, condition);
+		store.spawnWhere(numLargeBalls, ScenarioGenerator.Distribution.UNIFORM, BounceTester.LARGE_BALL_DIAMETER + 1,
+				BounceTester.MAX_LARGE_BALL_DIAMETER, condition);
+	}
+
+	/**
+	 * run
+	 * Method that runs commands from the coordinator until told to quit
+	 */
+	public void run() throws IOException {
+		int command = in.readInt();
+		while (command != QUIT) {
+			if (command == STEP) {
+				step();
+			} else if (command == DUMP) {
+				outgoing.clear();
+				for (int i = 0; i < balls.size(); i++) {
+					outgoing.add(i);
+				}
+				writeBalls(out, balls, outgoing);
+				out.flush();
+			}
+			command = in.readInt();
+		}
+	}
+
+	/**
+	 * step
+	 * Method that exchanges the halo with the other tiles, simulates one step, and hands off the balls that left the tile
+	 */
+	private void step() throws IOException {
+
+		// Send the balls that the other tiles need to see
+		outgoing.clear();
+		for (int i = 0; i < balls.size(); i++) {
+			for (int other = 0; other < NUMBER_OF_TILES; other++) {
+				if (other != tile && isNearTile(balls, i, other, width, height, haloWidth)) {
+					outgoing.add(i);
+					break;
+				}
+			}
+		}
+		writeBalls(out, balls, outgoing);
+		out.flush();
+
+		// The balls near the edges of the other tiles are only kept for this step
+		int ownBalls = balls.size();
+		readBalls(in, balls);
+		simulation.step();
+		balls.truncate(ownBalls);
+
+		// Send the balls that have moved into another tile, and remove them from this one
+		outgoing.clear();
+		for (int i = 0; i < balls.size(); i++) {
+			if (tileOf(balls, i, width, height) != tile) {
+				outgoing.add(i);
+			}
+		}
+		writeBalls(out, balls, outgoing);
+		out.flush();
+		balls.removeWhere(index -> tileOf(balls, index, width, height) != tile);
+
+		// Receive the balls that have moved into this tile
+		readBalls(in, balls);
+	}
+
+	/**
+	 * tileOf
+	 * Method that returns the tile that a ball belongs to, which is the first subsegment of the QuadTree that would take it
+	 * The subsegments share their edges, so a ball on an edge belongs to the first of them in the order the QuadTree tries them
+	 * @param the store of the ball, the integer index of the ball and the integer width and height of the whole screen
+	 * @return the integer tile of the ball
+	 */
+	static int tileOf(BallStore store, int index, int width, int height) {
+		
+		// The same point, center and half sizes that the QuadTree uses for the whole screen and its subsegments
+		double px = store.getX(index) + store.getDiameter(index) / 2;
+		double py = store.getY(index) + store.getDiameter(index) / 2;
+		int x = width / 2;
+		int y = height / 2;
+		int w = width / 2;
+		int h = height / 2;
+		int halfW = w - w/2;
+		int halfH = h - h/2;
+		
+		// The east subsegments are tried before the west ones, and the north ones before the south ones
+		boolean east = px >= x + w/2 - halfW;
+		boolean west = px <= x - w/2 + halfW;
+		boolean north = py <= y - h/2 + halfH;
+		if (north && (east || !west)) {
+			return NORTHEAST;
+		} else if (north) {
+			return NORTHWEST;
+		} else if (east || !west) {
+			return SOUTHEAST;
+		} else {
+			return SOUTHWEST;
+		}
+	}
+
+	/**
+	 * isNearTile
+	 * Method that checks if a ball is within the halo around a tile
+	 * @param the store of the ball, the integer index of the ball, the integer tile, the integer width and height of the whole screen
+	 * and the integer width of the halo
+	 * @return boolean true if the ball is in the tile or its halo, false otherwise
+	 */
+	static boolean isNearTile(BallStore store, int index, int tile, int width, int height, int haloWidth) {
+		double x = store.getX(index) + store.getDiameter(index) / 2;
+		double y = store.getY(index) + store.getDiameter(index) / 2;
+
+		// Use TLAP to find the edges of the tile
+		boolean east = tile == NORTHEAST || tile == SOUTHEAST;
+		boolean south = tile == SOUTHEAST || tile == SOUTHWEST;
+		int minX = east ? width / 2 : Integer.MIN_VALUE / 2;
+		int maxX = east ? Integer.MAX_VALUE / 2 : width / 2;
+		int minY = south ? height / 2 : Integer.MIN_VALUE / 2;
+		int maxY = south ? Integer.MAX_VALUE / 2 : height / 2;
+
+		return x >= minX - haloWidth && x <= maxX + haloWidth && y >= minY - haloWidth && y <= maxY + haloWidth;
+	}
+
+	/**
+	 * writeBalls
+	 * Method that sends a list of balls through a stream
+	 * @param the DataOutputStream to write to, the store of the balls and an IndexList of the balls to send
+	 */
+	static void writeBalls(DataOutputStream out, BallStore store, IndexList ballsToSend) throws IOException {
+		out.writeInt(ballsToSend.size());
+		for (int i = 0; i < ballsToSend.size(); i++) {
+			writeBall(out, store, ballsToSend.get(i));
+		}
+	}
+
+	/**
+	 * writeBall
+	 * Method that sends one ball through a stream, after the number of balls has already been sent
+	 * @param the DataOutputStream to write to, the store of the ball and the integer index of the ball
+	 */
+	static void writeBall(DataOutputStream out, BallStore store, int index) throws IOException {
+		out.writeInt(store.getId(index));
+		out.writeDouble(store.getX(index));
+		out.writeDouble(store.getY(index));
+		out.writeInt(store.getDiameter(index));
+		out.writeDouble(store.getMass(index));
+		out.writeDouble(store.getxChange(index));
+		out.writeDouble(store.getyChange(index));
+		out.writeInt(store.getRGB(index));
+	}
+
+	/**
+	 * readBalls
+	 * Method that receives a list of balls from a stream and adds them to the end of a store
+	 * @param the DataInputStream to read from and the store to add the balls to
+	 */
+	static void readBalls(DataInputStream in, BallStore store) throws IOException {
+		int numBalls = in.readInt();
+		for (int i = 0; i < numBalls; i++) {
+			int ballId = in.readInt();
+			double x = in.readDouble();
+			double y = in.readDouble();
+			int diameter = in.readInt();
+			double mass = in.readDouble();
+			double xChange = in.readDouble();
+			double yChange = in.readDouble();
+			int color = in.readInt();
+			store.add(ballId, x, y, diameter, mass, xChange, yChange, color);
+		}
+	}
+}